@@ -0,0 +1,195 @@
+package com.metadium.did;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.metadium.did.crypto.MetadiumKey;
+import com.metadium.did.exception.DidException;
+import com.metadium.did.protocol.MetaDelegator;
+
+/**
+ * Create many DIDs with bounded number of operations in flight.<p/>
+ *
+ * Each DID is created with {@link MetadiumWallet#createDidAsync(MetaDelegator, MetadiumKey, Executor)},
+ * create_identity followed by add_public_key_delegated after IdentityCreated receipt.
+ * Key of next DID is generated while waiting free slot, and at most maxInFlight DIDs are being created at once,
+ * so throughput is bounded by chain and delegator, not by number of threads.
+ * Results are reported as each DID is finished, not in requested order.
+ * Wallet is reported also on failure, because identity may be created on chain although add_public_key is failed.
+ * Failure before transaction is sent, like rejected by executor, is reported in the same way.
+ * If iterator of keys fails, the failure is reported without wallet and no more key is taken.
+ * Then wallet has did and key, and public key can be added again with {@link MetaDelegator#addPublicKeyDelegated(com.metadium.did.crypto.MetadiumKeyImpl, java.math.BigInteger)}.
+ * <pre>
+ * DidProvisioner provisioner = new DidProvisioner(metaDelegator, 200, executor);
+ * DidProvisioner.Summary summary = provisioner.provision(10000, (index, wallet, error) -&gt; {
+ *     if (error == null) {
+ *         store(wallet.toJson());
+ *     }
+ *     else if (wallet.getDid() != null) {
+ *         retryAddPublicKey(wallet);
+ *     }
+ * });
+ * </pre>
+ */
+public class DidProvisioner {
+	/**
+	 * Receiver of result of each DID. Called concurrently on completion threads, so must be thread-safe
+	 */
+	public interface ResultListener {
+		/**
+		 * Result of DID
+		 * @param index index of request. starts from 0
+		 * @param wallet wallet of DID. on failure, has key and did is null if identity is not created. null if next key is failed
+		 * @param error error. null if created
+		 */
+		void onResult(long index, MetadiumWallet wallet, DidException error);
+	}
+
+	private final MetaDelegator metaDelegator;
+
+	private final int maxInFlight;
+
+	private final Executor executor;
+
+	/**
+	 * Create provisioner
+	 * @param metaDelegator delegator
+	 * @param maxInFlight maximum number of DIDs being created at once
+	 * @param executor executor to submit delegated transaction. null is default executor of {@link MetadiumWallet}
+	 */
+	public DidProvisioner(MetaDelegator metaDelegator, int maxInFlight, Executor executor) {
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("maxInFlight must be positive");
+		}
+		this.metaDelegator = metaDelegator;
+		this.maxInFlight = maxInFlight;
+		this.executor = executor;
+	}
+
+	/**
+	 * Create DIDs with new keys. Blocks until all DIDs are finished
+	 * @param count number of DID to create
+	 * @param listener receiver of result
+	 * @return count of results
+	 * @throws InterruptedException interrupted while waiting. DIDs in flight are still reported
+	 */
+	public Summary provision(long count, ResultListener listener) throws InterruptedException {
+		return provision(new Iterator<MetadiumKey>() {
+			private long remaining = count;
+
+			@Override
+			public boolean hasNext() {
+				return remaining > 0;
+			}
+
+			@Override
+			public MetadiumKey next() {
+				remaining--;
+				try {
+					return new MetadiumKey();
+				}
+				catch (InvalidAlgorithmParameterException e) {
+					// secp256k1 is always supported
+					throw new IllegalStateException(e);
+				}
+			}
+		}, listener);
+	}
+
+	/**
+	 * Create DIDs of given keys. Blocks until all DIDs are finished
+	 * @param keys keys of DID. next key is taken while waiting free slot
+	 * @param listener receiver of result
+	 * @return count of results
+	 * @throws InterruptedException interrupted while waiting. DIDs in flight are still reported
+	 */
+	public Summary provision(Iterator<MetadiumKey> keys, ResultListener listener) throws InterruptedException {
+		Semaphore slots = new Semaphore(maxInFlight);
+		Summary summary = new Summary();
+
+		long index = 0;
+		while (keys.hasNext()) {
+			long current = index++;
+			MetadiumWallet wallet;
+			try {
+				// prepare key before waiting slot
+				wallet = new MetadiumWallet(null, keys.next());
+			}
+			catch (RuntimeException e) {
+				// keys are broken. DIDs in flight are still waited
+				summary.failedCount.incrementAndGet();
+				listener.onResult(current, null, new DidException(e));
+				break;
+			}
+			slots.acquire();
+			CompletableFuture<MetadiumWallet> future;
+			try {
+				future = MetadiumWallet.createDidOfWalletAsync(metaDelegator, wallet, executor);
+			}
+			catch (RuntimeException e) {
+				// rejected by executor. reported and slot is released as failed DID
+				future = new CompletableFuture<>();
+				future.completeExceptionally(e);
+			}
+			future.whenComplete((created, e) -> {
+				try {
+					if (e == null) {
+						summary.createdCount.incrementAndGet();
+						listener.onResult(current, wallet, null);
+					}
+					else {
+						summary.failedCount.incrementAndGet();
+						listener.onResult(current, wallet, toDidException(e));
+					}
+				}
+				finally {
+					slots.release();
+				}
+			});
+		}
+
+		// wait all in flight
+		slots.acquire(maxInFlight);
+		slots.release(maxInFlight);
+		return summary;
+	}
+
+	private static DidException toDidException(Throwable e) {
+		Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+		return cause instanceof DidException ? (DidException)cause : new DidException(cause);
+	}
+
+	/**
+	 * Count of results
+	 */
+	public static class Summary {
+		private final AtomicLong createdCount = new AtomicLong();
+		private final AtomicLong failedCount = new AtomicLong();
+
+		/**
+		 * Number of created DIDs
+		 * @return count
+		 */
+		public long getCreatedCount() {
+			return createdCount.get();
+		}
+
+		/**
+		 * Number of failed DIDs
+		 * @return count
+		 */
+		public long getFailedCount() {
+			return failedCount.get();
+		}
+
+		@Override
+		public String toString() {
+			return "Summary{created="+createdCount+", failed="+failedCount+"}";
+		}
+	}
+}
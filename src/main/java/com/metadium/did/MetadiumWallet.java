@@ -12,6 +12,14 @@ import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.web3j.crypto.ECKeyPair;
 import org.web3j.protocol.core.methods.response.TransactionReceipt;
@@ -25,9 +33,6 @@ import com.metadium.did.crypto.MetadiumKey;
 import com.metadium.did.exception.DidException;
 import com.metadium.did.protocol.JSONRPCException;
 import com.metadium.did.protocol.MetaDelegator;
-import com.metadium.did.util.Web3jUtils;
-import com.metadium.did.wapper.NotSignTransactionManager;
-import com.metadium.did.wapper.ZeroContractGasProvider;
 import com.metadium.vc.Verifiable;
 import com.metadium.vc.VerifiableCredential;
 import com.metadium.vc.VerifiablePresentation;
@@ -47,6 +52,21 @@ import com.nimbusds.jwt.SignedJWT;
  *
  */
 public class MetadiumWallet {
+	/** Number of threads of default submit executor. Delegator requests are short HTTP calls and receipts are not waited on it */
+	public static final int DEFAULT_SUBMIT_THREADS = 8;
+	
+	/** Default executor of delegator requests of asynchronous operations. Shared by wallets. Requests over {@link #DEFAULT_SUBMIT_THREADS} are queued */
+	private static final ExecutorService DEFAULT_SUBMIT_EXECUTOR = Executors.newFixedThreadPool(DEFAULT_SUBMIT_THREADS, new ThreadFactory() {
+		private final AtomicInteger count = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "did-delegator-"+count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
 	/** private key */
 	private MetadiumKey key;
 	
@@ -98,22 +118,17 @@ public class MetadiumWallet {
 			MetadiumWallet metadiumDid = new MetadiumWallet(key == null ? new MetadiumKey() : key);
 			
 			String txHash = metaDelegator.createIdentityDelegated(metadiumDid.key);
-			TransactionReceipt transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+			TransactionReceipt transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 			
 			if (transactionReceipt.getStatus().equals("0x1")) {
-		        IdentityRegistry identityRegistry = IdentityRegistry.load(
-		                metaDelegator.getAllServiceAddress().identityRegistry,
-		                metaDelegator.getWeb3j(),
-		                new NotSignTransactionManager(metaDelegator.getWeb3j()),
-		                new ZeroContractGasProvider()
-		        );
+		        IdentityRegistry identityRegistry = metaDelegator.getContracts().getIdentityRegistry();
 				
 		        List<IdentityRegistry.IdentityCreatedEventResponse> responses = identityRegistry.getIdentityCreatedEvents(transactionReceipt);
 	            if(responses.size() > 0){
 	            	metadiumDid.did = metaDelegator.einToDid(responses.get(0).ein);
 	                
 	                String result = metaDelegator.addPublicKeyDelegated(metadiumDid.key, metadiumDid.key.getPublicKey());
-	                TransactionReceipt addPublicReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), result);
+	                TransactionReceipt addPublicReceipt = metaDelegator.waitTransactionReceipt(result);
 	                if(addPublicReceipt.getStatus().equals("0x1")){
 	                    return metadiumDid;
 	                }
@@ -142,12 +157,7 @@ public class MetadiumWallet {
 	 * @throws Exception
 	 */
 	public boolean existsDid(MetaDelegator metaDelegator) throws DidException, Exception {
-        IdentityRegistry identityRegistry = IdentityRegistry.load(
-                metaDelegator.getAllServiceAddress().identityRegistry,
-                metaDelegator.getWeb3j(),
-                new NotSignTransactionManager(metaDelegator.getWeb3j()),
-                new ZeroContractGasProvider()
-        );
+        IdentityRegistry identityRegistry = metaDelegator.getContracts().getIdentityRegistry();
         
         try {
 	        return identityRegistry.hasIdentity(key.getAddress()).send();
@@ -169,7 +179,7 @@ public class MetadiumWallet {
 	public String addServiceKey(MetaDelegator metaDelegator, String serviceId, String serviceKeyAddress) throws DidException {
 		try {
 			String txHash = metaDelegator.addKeyDelegated(this.getKey(), serviceId, serviceKeyAddress);
-			TransactionReceipt transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+			TransactionReceipt transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 			if (transactionReceipt.getStatus().equals("0x1")) {
 				return txHash;
 			}
@@ -192,7 +202,7 @@ public class MetadiumWallet {
 	public String removeServiceKey(MetaDelegator metaDelegator, String serviceId, String serviceKeyAddress) throws DidException {
 		try {
 			String txHash = metaDelegator.removeKeyDelegated(this.getKey(), serviceId, serviceKeyAddress);
-			TransactionReceipt transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+			TransactionReceipt transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 			if (transactionReceipt.getStatus().equals("0x1")) {
 				return txHash;
 			}
@@ -212,7 +222,7 @@ public class MetadiumWallet {
 	public String removeAllServiceKey(MetaDelegator metaDelegator) throws DidException {
 		try {
 			String txHash = metaDelegator.removeKeysDelegated(this.getKey());
-			TransactionReceipt transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+			TransactionReceipt transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 			if (transactionReceipt.getStatus().equals("0x1")) {
 				return txHash;
 			}
@@ -236,19 +246,19 @@ public class MetadiumWallet {
 		try {
 			// add associated address
 			String txHash = metaDelegator.addAssociatedAddressDelegated(key, newKey);
-			TransactionReceipt transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+			TransactionReceipt transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 			if (transactionReceipt.getStatus().equals("0x1")) {
 				// add public key
 				txHash = metaDelegator.addPublicKeyDelegated(newKey, newKey.getPublicKey());
-				transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+				transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 				if (transactionReceipt.getStatus().equals("0x1")) {
 					// remove old public key
 					txHash = metaDelegator.removePublicKeyDelegated(key);
-					transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+					transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 					if (transactionReceipt.getStatus().equals("0x1")) {
 						// remove old associated address
 						txHash = metaDelegator.removeAssociatedAddressDelegated(key);
-						transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+						transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 						if (transactionReceipt.getStatus().equals("0x1")) {
 							key = newKey;
 							return transactionReceipt.getBlockNumber();
@@ -299,19 +309,19 @@ public class MetadiumWallet {
 		try {
 			// add associated address.
 			String txHash = metaDelegator.addAssociatedAddressDelegated(key, newPublicKey, signature.substring(0, 130)+signature.substring(260));
-			TransactionReceipt transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+			TransactionReceipt transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 			if (transactionReceipt.getStatus().equals("0x1")) {
 				// add public key
 				txHash = metaDelegator.addPublicKeyDelegated(newPublicKey, signature.substring(130, 260)+signature.substring(260));
-				transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+				transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 				if (transactionReceipt.getStatus().equals("0x1")) {
 					// remove old public key
 					txHash = metaDelegator.removePublicKeyDelegated(key);
-					transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+					transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 					if (transactionReceipt.getStatus().equals("0x1")) {
 						// remove old associated address
 						txHash = metaDelegator.removeAssociatedAddressDelegated(key);
-						transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+						transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 						if (transactionReceipt.getStatus().equals("0x1")) {
 							key = null;
 							return transactionReceipt.getBlockNumber();
@@ -345,10 +355,10 @@ public class MetadiumWallet {
 	public void deleteDid(MetaDelegator metaDelegator) throws DidException {
 		try {
 			String txHash = metaDelegator.removePublicKeyDelegated(key);
-			TransactionReceipt transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+			TransactionReceipt transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 			if (transactionReceipt.getStatus().equals("0x1")) {
 				txHash = metaDelegator.removeAssociatedAddressDelegated(key);
-				transactionReceipt = Web3jUtils.ethGetTransactionReceipt(metaDelegator.getWeb3j(), txHash);
+				transactionReceipt = metaDelegator.waitTransactionReceipt(txHash);
 				if (transactionReceipt.getStatus().equals("0x1")) {
 					return;
 				}
@@ -365,6 +375,248 @@ public class MetadiumWallet {
 		}
 	}
 	
+	/**
+	 * Create DID asynchronously with default executor
+	 * 
+	 * @see #createDidAsync(MetaDelegator, MetadiumKey, Executor)
+	 * @param metaDelegator {@link MetaDelegator}
+	 * @return future of created DID wallet
+	 */
+	public static CompletableFuture<MetadiumWallet> createDidAsync(MetaDelegator metaDelegator) {
+		return createDidAsync(metaDelegator, null, DEFAULT_SUBMIT_EXECUTOR);
+	}
+	
+	/**
+	 * Create DID from key asynchronously.<br/>
+	 * Delegated transactions are submitted on executor and receipts are waited with {@link MetaDelegator#getReceiptPoller()},
+	 * so no thread is held while waiting blocks.
+	 * 
+	 * @param metaDelegator {@link MetaDelegator}
+	 * @param key 지갑 키. null 이면 생성
+	 * @param executor executor to submit delegated transaction. null is default executor
+	 * @return future of created DID wallet. failed with {@link DidException}
+	 */
+	public static CompletableFuture<MetadiumWallet> createDidAsync(MetaDelegator metaDelegator, MetadiumKey key, Executor executor) {
+		MetadiumWallet metadiumDid;
+		try {
+			metadiumDid = new MetadiumWallet(key == null ? new MetadiumKey() : key);
+		}
+		catch (InvalidAlgorithmParameterException e) {
+			return failedFuture(new DidException(e));
+		}
+		return createDidOfWalletAsync(metaDelegator, metadiumDid, executor);
+	}
+	
+	/**
+	 * Create DID of key of wallet asynchronously.<br/>
+	 * did of wallet is set as soon as IdentityCreated event is decoded, so it is available even if add public key is failed.
+	 * 
+	 * @param metaDelegator {@link MetaDelegator}
+	 * @param metadiumDid   wallet which has key and no did
+	 * @param executor      executor to submit delegated transaction. null is default executor
+	 * @return future of wallet. failed with {@link DidException}
+	 */
+	static CompletableFuture<MetadiumWallet> createDidOfWalletAsync(MetaDelegator metaDelegator, MetadiumWallet metadiumDid, Executor executor) {
+		return submitAsync(metaDelegator, () -> metaDelegator.createIdentityDelegated(metadiumDid.key), "Failed to create DID.", executor)
+				.thenCompose(transactionReceipt -> {
+					try {
+						IdentityRegistry identityRegistry = metaDelegator.getContracts().getIdentityRegistry();
+						List<IdentityRegistry.IdentityCreatedEventResponse> responses = identityRegistry.getIdentityCreatedEvents(transactionReceipt);
+						if (responses.size() == 0) {
+							throw new DidException("Failed to create DID. bad event");
+						}
+						metadiumDid.did = metaDelegator.einToDid(responses.get(0).ein);
+					}
+					catch (DidException e) {
+						return MetadiumWallet.<TransactionReceipt>failedFuture(e);
+					}
+					return submitAsync(metaDelegator, () -> metaDelegator.addPublicKeyDelegated(metadiumDid.key, metadiumDid.key.getPublicKey()), "Failed to add public_key.", executor);
+				})
+				.thenApply(transactionReceipt -> metadiumDid);
+	}
+	
+	/**
+	 * 서비스 키 추가 asynchronously
+	 * 
+	 * @see #addServiceKey(MetaDelegator, String, String)
+	 * @param metaDelegator     {@link MetaDelegator}
+	 * @param serviceId         추가할 서비스의 ID
+	 * @param serviceKeyAddress 추가할 서비스 키의 address
+	 * @param executor          executor to submit delegated transaction. null is default executor
+	 * @return future of transaction hash. failed with {@link DidException}
+	 */
+	public CompletableFuture<String> addServiceKeyAsync(MetaDelegator metaDelegator, String serviceId, String serviceKeyAddress, Executor executor) {
+		MetadiumKey key = this.key;
+		return submitAsync(metaDelegator, () -> metaDelegator.addKeyDelegated(key, serviceId, serviceKeyAddress), "Failed to add service key.", executor)
+				.thenApply(TransactionReceipt::getTransactionHash);
+	}
+	
+	/**
+	 * 서비스 키 삭제 asynchronously
+	 * 
+	 * @see #removeServiceKey(MetaDelegator, String, String)
+	 * @param metaDelegator     {@link MetaDelegator}
+	 * @param serviceId         삭제할 서비스의 ID
+	 * @param serviceKeyAddress 삭제할 서비스 키의 address
+	 * @param executor          executor to submit delegated transaction. null is default executor
+	 * @return future of transaction hash. failed with {@link DidException}
+	 */
+	public CompletableFuture<String> removeServiceKeyAsync(MetaDelegator metaDelegator, String serviceId, String serviceKeyAddress, Executor executor) {
+		MetadiumKey key = this.key;
+		return submitAsync(metaDelegator, () -> metaDelegator.removeKeyDelegated(key, serviceId, serviceKeyAddress), "Failed to remove service key.", executor)
+				.thenApply(TransactionReceipt::getTransactionHash);
+	}
+	
+	/**
+	 * 모든 서비스 키를 삭제 asynchronously
+	 * 
+	 * @see #removeAllServiceKey(MetaDelegator)
+	 * @param metaDelegator {@link MetaDelegator}
+	 * @param executor      executor to submit delegated transaction. null is default executor
+	 * @return future of transaction hash. failed with {@link DidException}
+	 */
+	public CompletableFuture<String> removeAllServiceKeyAsync(MetaDelegator metaDelegator, Executor executor) {
+		MetadiumKey key = this.key;
+		return submitAsync(metaDelegator, () -> metaDelegator.removeKeysDelegated(key), "Failed to remove all service key.", executor)
+				.thenApply(TransactionReceipt::getTransactionHash);
+	}
+	
+	/**
+	 * update key asynchronously.<p/>
+	 * associatedKey 와 publicKey 를 지정한 키로 변경한다. transaction 이 실패(status 0x0)하면 {@link #updateKeyOfDid(MetaDelegator, MetadiumKey)} 와 같이 변경을 되돌린다.<br/>
+	 * timeout, network error 는 transaction 이 나중에 성공할 수 있으므로 되돌리지 않는다.
+	 * 
+	 * @param metaDelegator {@link MetaDelegator}
+	 * @param newKey        변경한 키
+	 * @param executor      executor to submit delegated transaction. null is default executor
+	 * @return future of block number of last transaction. failed with {@link DidException}
+	 */
+	public CompletableFuture<BigInteger> updateKeyOfDidAsync(MetaDelegator metaDelegator, MetadiumKey newKey, Executor executor) {
+		MetadiumKey oldKey = this.key;
+		Executor rollbackExecutor = executor == null ? DEFAULT_SUBMIT_EXECUTOR : executor;
+		
+		// add associated address
+		return submitAsync(metaDelegator, () -> metaDelegator.addAssociatedAddressDelegated(oldKey, newKey), "Failed to add associated_key.", executor)
+				// add public key
+				.thenCompose(r -> submitAsync(metaDelegator, () -> metaDelegator.addPublicKeyDelegated(newKey, newKey.getPublicKey()), "Failed to add public_key.", executor)
+						.whenCompleteAsync((receipt, e) -> {
+							if (isFailedTransaction(e)) {
+								rollback(() -> metaDelegator.removeAssociatedAddressDelegated(newKey));
+							}
+						}, rollbackExecutor))
+				// remove old public key
+				.thenCompose(r -> submitAsync(metaDelegator, () -> metaDelegator.removePublicKeyDelegated(oldKey), "Failed to remove old public_key.", executor)
+						.whenCompleteAsync((receipt, e) -> {
+							if (isFailedTransaction(e)) {
+								rollback(() -> metaDelegator.removePublicKeyDelegated(newKey));
+								rollback(() -> metaDelegator.removeAssociatedAddressDelegated(newKey));
+							}
+						}, rollbackExecutor))
+				// remove old associated address
+				.thenCompose(r -> submitAsync(metaDelegator, () -> metaDelegator.removeAssociatedAddressDelegated(oldKey), "Failed to remove old associated_key.", executor)
+						.whenCompleteAsync((receipt, e) -> {
+							if (isFailedTransaction(e)) {
+								rollback(() -> metaDelegator.addPublicKeyDelegated(oldKey, oldKey.getPublicKey()));
+								rollback(() -> metaDelegator.removePublicKeyDelegated(newKey));
+								rollback(() -> metaDelegator.removeAssociatedAddressDelegated(newKey));
+							}
+						}, rollbackExecutor))
+				.thenApply(transactionReceipt -> {
+					key = newKey;
+					return transactionReceipt.getBlockNumber();
+				});
+	}
+	
+	/**
+	 * did 삭제 asynchronously
+	 * 
+	 * @see #deleteDid(MetaDelegator)
+	 * @param metaDelegator {@link MetaDelegator}
+	 * @param executor      executor to submit delegated transaction. null is default executor
+	 * @return future completed when deleted. failed with {@link DidException}
+	 */
+	public CompletableFuture<Void> deleteDidAsync(MetaDelegator metaDelegator, Executor executor) {
+		MetadiumKey key = this.key;
+		return submitAsync(metaDelegator, () -> metaDelegator.removePublicKeyDelegated(key), "Failed to delete public_key for delete did.", executor)
+				.thenCompose(r -> submitAsync(metaDelegator, () -> metaDelegator.removeAssociatedAddressDelegated(key), "Failed to delete associated_key for delete did.", executor))
+				.thenApply(r -> null);
+	}
+	
+	/**
+	 * Submit delegated transaction on executor and wait receipt with receipt poller of delegator
+	 * 
+	 * @param metaDelegator {@link MetaDelegator}
+	 * @param submission    request to delegator. returns transaction hash
+	 * @param failMessage   message of {@link DidException} if transaction is failed
+	 * @param executor      executor to submit
+	 * @return future of successful receipt. failed with {@link DidException}
+	 */
+	private static CompletableFuture<TransactionReceipt> submitAsync(MetaDelegator metaDelegator, Callable<String> submission, String failMessage, Executor executor) {
+		CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+		CompletableFuture.supplyAsync(() -> {
+			try {
+				return submission.call();
+			}
+			catch (Exception e) {
+				throw new CompletionException(e);
+			}
+		}, executor == null ? DEFAULT_SUBMIT_EXECUTOR : executor)
+		.thenCompose(txHash -> metaDelegator.getReceiptPoller().getTransactionReceipt(txHash))
+		.whenComplete((transactionReceipt, e) -> {
+			if (e != null) {
+				Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+				future.completeExceptionally(cause instanceof DidException ? cause : new DidException(cause));
+			}
+			else if (!"0x1".equals(transactionReceipt.getStatus())) {
+				future.completeExceptionally(new TransactionFailedException(failMessage+" tx is "+transactionReceipt.getTransactionHash()));
+			}
+			else {
+				future.complete(transactionReceipt);
+			}
+		});
+		return future;
+	}
+	
+	/**
+	 * Request compensating transaction. Receipt is not waited and error is ignored like synchronous update
+	 * @param submission request to delegator
+	 */
+	private static void rollback(Callable<String> submission) {
+		try {
+			submission.call();
+		}
+		catch (Exception e) {
+			// ignore
+		}
+	}
+	
+	/**
+	 * Check error is failed status of mined transaction, not timeout or network error
+	 * @param e error of {@link #submitAsync(MetaDelegator, Callable, String, Executor)}
+	 * @return true if transaction is mined with failed status
+	 */
+	private static boolean isFailedTransaction(Throwable e) {
+		Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+		return cause instanceof TransactionFailedException;
+	}
+	
+	/**
+	 * Transaction is mined with failed status
+	 */
+	private static class TransactionFailedException extends DidException {
+		private static final long serialVersionUID = -3416590453124711874L;
+		
+		TransactionFailedException(String message) {
+			super(message);
+		}
+	}
+	
+	private static <T> CompletableFuture<T> failedFuture(Throwable e) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		future.completeExceptionally(e);
+		return future;
+	}
+	
 	/**
 	 * Get did
 	 * @return
@@ -15,11 +15,14 @@ import java.math.BigInteger;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.KeyPair;
 import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
 import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
 import java.security.spec.ECPoint;
 import java.security.spec.ECPrivateKeySpec;
 import java.security.spec.ECPublicKeySpec;
 import java.security.spec.EllipticCurve;
+import java.util.Arrays;
 
 /**
  * EC keypair 생성 utility<br>
@@ -28,6 +31,10 @@ import java.security.spec.EllipticCurve;
  * 직접 BouncyCastle 의 KeyPairGenerator 를 직접 호출하여 keypair 를 생성함<br>
  */
 public class ECKeyUtils {
+    private static final ECNamedCurveParameterSpec SECP256K1_PARAMS = ECNamedCurveTable.getParameterSpec("secp256k1");
+
+    private static final ECParameterSpec SECP256K1_SPEC = EC5Util.convertSpec(EC5Util.convertCurve(SECP256K1_PARAMS.getCurve(), SECP256K1_PARAMS.getSeed()), SECP256K1_PARAMS);
+
     public static ECKeyPair generateSecp256k1ECKeyPair() throws InvalidAlgorithmParameterException {
         return ECKeyPair.create(generateSecp256k1KeyPair());
     }
@@ -60,4 +67,33 @@ public class ECKeyUtils {
         ECPublicKeySpec publicKeySpec = new ECPublicKeySpec(ecPoint, EC5Util.convertSpec(ellipticCurve, params));
         return new BCECPublicKey("EC", publicKeySpec, BouncyCastleProvider.CONFIGURATION);
     }
+
+    /**
+     * Convert from uncompressed point without prefix to secp256k1 public key
+     * @param point x || y. 64 bytes
+     * @return EC public key
+     * @throws IllegalArgumentException not 64 bytes or point is not on curve
+     */
+    public static BCECPublicKey getPublicKey(byte[] point) {
+        if (point.length != 64) {
+            throw new IllegalArgumentException("Public key must be 64 bytes");
+        }
+        BigInteger x = new BigInteger(1, Arrays.copyOfRange(point, 0, 32));
+        BigInteger y = new BigInteger(1, Arrays.copyOfRange(point, 32, 64));
+        SECP256K1_PARAMS.getCurve().validatePoint(x, y);
+        ECPoint ecPoint = new ECPoint(x, y);
+        return new BCECPublicKey("EC", new ECPublicKeySpec(ecPoint, SECP256K1_SPEC), BouncyCastleProvider.CONFIGURATION);
+    }
+
+    /**
+     * Convert from public key to uncompressed point without prefix
+     * @param publicKey EC public key
+     * @return x || y. 64 bytes
+     */
+    public static byte[] toPoint(ECPublicKey publicKey) {
+        byte[] point = new byte[64];
+        System.arraycopy(Numeric.toBytesPadded(publicKey.getW().getAffineX(), 32), 0, point, 0, 32);
+        System.arraycopy(Numeric.toBytesPadded(publicKey.getW().getAffineY(), 32), 0, point, 32, 32);
+        return point;
+    }
 }
@@ -0,0 +1,149 @@
+package com.metadium.did.crypto;
+
+import java.math.BigInteger;
+import java.security.interfaces.ECPublicKey;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.ec.WNafUtil;
+
+import com.nimbusds.jose.CriticalHeaderParamsAware;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.impl.CriticalHeaderParamsDeferral;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.util.Base64URL;
+
+/**
+ * ES256K verifier with precomputed wNAF table of public key.<br>
+ * Table of public key is computed once with wide window and u1*G + u2*Q of each verification reuses it with GLV endomorphism.
+ * Signature is checked directly without JCA signature and DER conversion. Use for public key which verifies many signatures.<br>
+ * Header with not deferred critical parameter is rejected as {@link com.nimbusds.jose.crypto.ECDSAVerifier}.
+ */
+public class PrecomputedECDSAVerifier implements JWSVerifier, CriticalHeaderParamsAware {
+    /** Estimated heap size of precomputed table of one public key in bytes */
+    public static final int ESTIMATED_TABLE_SIZE = 64 * 1024;
+
+    /** wNAF window width of precomputed table. widest window used by ECAlgorithms */
+    private static final int WINDOW_WIDTH = 8;
+
+    private static final X9ECParameters SECP256K1 = CustomNamedCurves.getByName("secp256k1");
+
+    private static final ECPoint G = SECP256K1.getG();
+
+    private static final BigInteger N = SECP256K1.getN();
+
+    static {
+        WNafUtil.precompute(G, WINDOW_WIDTH, true);
+    }
+
+    private final ECPublicKey publicKey;
+
+    private final ECPoint q;
+
+    private final JCAContext jcaContext = new JCAContext();
+
+    private final CriticalHeaderParamsDeferral critPolicy = new CriticalHeaderParamsDeferral();
+
+    /**
+     * Create verifier and precompute table of public key
+     * @param publicKey secp256k1 public key
+     * @throws JOSEException public key is not on secp256k1 curve
+     */
+    public PrecomputedECDSAVerifier(ECPublicKey publicKey) throws JOSEException {
+        this(publicKey, null);
+    }
+
+    /**
+     * Create verifier and precompute table of public key
+     * @param publicKey secp256k1 public key
+     * @param defCritHeaders names of critical header parameters processed by caller. null is none
+     * @throws JOSEException public key is not on secp256k1 curve
+     */
+    public PrecomputedECDSAVerifier(ECPublicKey publicKey, Set<String> defCritHeaders) throws JOSEException {
+        ECPoint point;
+        try {
+            point = SECP256K1.getCurve().createPoint(publicKey.getW().getAffineX(), publicKey.getW().getAffineY());
+        }
+        catch (IllegalArgumentException e) {
+            throw new JOSEException("Invalid secp256k1 public key", e);
+        }
+        if (!point.isValid()) {
+            throw new JOSEException("Invalid secp256k1 public key");
+        }
+        this.publicKey = publicKey;
+        this.q = point.normalize();
+        critPolicy.setDeferredCriticalHeaderParams(defCritHeaders);
+        WNafUtil.precompute(q, WINDOW_WIDTH, true);
+    }
+
+    public ECPublicKey getPublicKey() {
+        return publicKey;
+    }
+
+    @Override
+    public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+        return Collections.singleton(JWSAlgorithm.ES256K);
+    }
+
+    @Override
+    public JCAContext getJCAContext() {
+        return jcaContext;
+    }
+
+    @Override
+    public Set<String> getProcessedCriticalHeaderParams() {
+        return critPolicy.getProcessedCriticalHeaderParams();
+    }
+
+    @Override
+    public Set<String> getDeferredCriticalHeaderParams() {
+        return critPolicy.getDeferredCriticalHeaderParams();
+    }
+
+    @Override
+    public boolean verify(JWSHeader header, byte[] signingInput, Base64URL signature) throws JOSEException {
+        if (!JWSAlgorithm.ES256K.equals(header.getAlgorithm())) {
+            throw new JOSEException("Unsupported JWS algorithm " + header.getAlgorithm() + ", must be ES256K");
+        }
+        if (!critPolicy.headerPasses(header)) {
+            // not understood critical parameter
+            return false;
+        }
+
+        // R || S
+        byte[] signatureBytes = signature.decode();
+        if (signatureBytes.length != 64) {
+            return false;
+        }
+        BigInteger r = new BigInteger(1, Arrays.copyOfRange(signatureBytes, 0, 32));
+        BigInteger s = new BigInteger(1, Arrays.copyOfRange(signatureBytes, 32, 64));
+        if (r.signum() == 0 || r.compareTo(N) >= 0 || s.signum() == 0 || s.compareTo(N) >= 0) {
+            return false;
+        }
+
+        SHA256Digest digest = new SHA256Digest();
+        byte[] hash = new byte[digest.getDigestSize()];
+        digest.update(signingInput, 0, signingInput.length);
+        digest.doFinal(hash, 0);
+        BigInteger e = new BigInteger(1, hash);
+
+        // u1*G + u2*Q
+        BigInteger w = s.modInverse(N);
+        BigInteger u1 = e.multiply(w).mod(N);
+        BigInteger u2 = r.multiply(w).mod(N);
+        ECPoint point = ECAlgorithms.sumOfTwoMultiplies(G, u1, q, u2).normalize();
+        if (point.isInfinity()) {
+            return false;
+        }
+        return point.getAffineXCoord().toBigInteger().mod(N).equals(r);
+    }
+}
@@ -0,0 +1,12 @@
+package com.metadium.did.exception;
+
+/**
+ * Not found did in resolver or registry
+ */
+public class DidNotFoundException extends DidException {
+	private static final long serialVersionUID = -3514873268530527104L;
+
+	public DidNotFoundException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,16 @@
+package com.metadium.did.exception;
+
+/**
+ * JWT is rejected by verify policy before signature is verified
+ */
+public class PolicyViolationException extends DidException {
+	private static final long serialVersionUID = -3906142250866152713L;
+
+	public PolicyViolationException(String message) {
+		super(message);
+	}
+
+	public PolicyViolationException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -0,0 +1,12 @@
+package com.metadium.did.exception;
+
+/**
+ * Not found public key of key id in DID
+ */
+public class PublicKeyNotFoundException extends DidException {
+	private static final long serialVersionUID = 8429981052743206151L;
+
+	public PublicKeyNotFoundException(String message) {
+		super(message);
+	}
+}
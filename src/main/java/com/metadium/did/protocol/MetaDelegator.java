@@ -1,5 +1,6 @@
 package com.metadium.did.protocol;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
@@ -16,6 +17,7 @@ import org.web3j.protocol.core.DefaultBlockParameterName;
 import org.web3j.protocol.core.DefaultBlockParameterNumber;
 import org.web3j.protocol.core.Request;
 import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.web3j.protocol.http.HttpService;
 import org.web3j.tuples.generated.Tuple4;
 import org.web3j.tx.ReadonlyTransactionManager;
@@ -31,7 +33,6 @@ import com.metadium.did.protocol.data.RegistryAddress;
 import com.metadium.did.util.Bytes;
 import com.metadium.did.util.IdentityRegistryHelper;
 import com.metadium.did.util.NumericUtils;
-import com.metadium.did.wapper.NotSignTransactionManager;
 import com.metadium.did.wapper.ZeroContractGasProvider;
 
 import okhttp3.OkHttpClient;
@@ -41,7 +42,7 @@ import okhttp3.OkHttpClient;
  * default test-net url is https://testdelegator.metadium.com<br/>
  * https://drive.google.com/open?id=1p5sOaJVfuelJ8ifgk4-De3zL0trnRXQo
  */
-public class MetaDelegator {
+public class MetaDelegator implements Closeable {
     private static final String MAINNET_PROXY_URL = "https://delegator.metadium.com";
 
     private static final String METHOD_GET_ALL_SERVICE_ADDRESSES = "get_all_service_addresses";
@@ -56,6 +57,11 @@ public class MetaDelegator {
     
     private String didPrefix;
     
+    /** created on first use */
+    private volatile TransactionReceiptPoller receiptPoller;
+    
+    private volatile RegistryContracts contracts;
+    
     
     /**
      * create delegator.
@@ -124,6 +130,47 @@ public class MetaDelegator {
         return web3j;
     }
 
+    /**
+     * Get shared poller of transaction receipt of node
+     * @return receipt poller
+     */
+    public TransactionReceiptPoller getReceiptPoller() {
+        TransactionReceiptPoller receiptPoller = this.receiptPoller;
+        if (receiptPoller == null) {
+            synchronized (this) {
+                receiptPoller = this.receiptPoller;
+                if (receiptPoller == null) {
+                    receiptPoller = new TransactionReceiptPoller(web3j);
+                    this.receiptPoller = receiptPoller;
+                }
+            }
+        }
+        return receiptPoller;
+    }
+
+    /**
+     * Release resources of delegator. Stops receipt poller and fails its pending receipts
+     */
+    @Override
+    public void close() {
+        TransactionReceiptPoller receiptPoller = this.receiptPoller;
+        if (receiptPoller != null) {
+            receiptPoller.close();
+        }
+    }
+
+    /**
+     * Wait transaction receipt with shared receipt poller
+     *
+     * @param txHash transaction hash
+     * @return transaction receipt
+     * @throws IOException io error or timeout
+     * @throws JSONRPCException node error
+     */
+    public TransactionReceipt waitTransactionReceipt(String txHash) throws IOException, JSONRPCException {
+        return getReceiptPoller().waitTransactionReceipt(txHash);
+    }
+
     /**
      * Get System registry address
      *
@@ -153,6 +200,26 @@ public class MetaDelegator {
     }
 
 
+    /**
+     * Get reusable contract wrappers of registry addresses
+     *
+     * @return contracts
+     * @throws DidException fail to get registry address
+     */
+    public RegistryContracts getContracts() throws DidException {
+        RegistryContracts contracts = this.contracts;
+        if (contracts == null) {
+            synchronized (this) {
+                contracts = this.contracts;
+                if (contracts == null) {
+                    contracts = new RegistryContracts(web3j, getAllServiceAddress());
+                    this.contracts = contracts;
+                }
+            }
+        }
+        return contracts;
+    }
+
     /**
      * Get timestamp of node
      *
@@ -233,7 +300,7 @@ public class MetaDelegator {
         RegistryAddress registryAddress = getAllServiceAddress();
         String associatedAddress = key.getAddress();
 
-        String resolverAddress = IdentityRegistryHelper.getServiceKeyResolverAddressOfIdentity(web3j, registryAddress, associatedAddress);
+        String resolverAddress = IdentityRegistryHelper.getServiceKeyResolverAddressOfIdentity(getContracts(), associatedAddress);
 
 
         long timestamp = getTimestamp(web3j);
@@ -280,7 +347,7 @@ public class MetaDelegator {
         RegistryAddress registryAddress = getAllServiceAddress();
         String associatedAddress = key.getAddress();
 
-        String resolverAddress = IdentityRegistryHelper.getServiceKeyResolverAddressOfIdentity(web3j, registryAddress, associatedAddress);
+        String resolverAddress = IdentityRegistryHelper.getServiceKeyResolverAddressOfIdentity(getContracts(), associatedAddress);
 
         long timestamp = getTimestamp(web3j);
         byte[] message = Bytes.concat(
@@ -324,7 +391,7 @@ public class MetaDelegator {
         RegistryAddress registryAddress = getAllServiceAddress();
         String associatedAddress = key.getAddress();
 
-        String resolverAddress = IdentityRegistryHelper.getServiceKeyResolverAddressOfIdentity(web3j, registryAddress, associatedAddress);
+        String resolverAddress = IdentityRegistryHelper.getServiceKeyResolverAddressOfIdentity(getContracts(), associatedAddress);
 
         long timestamp = getTimestamp(web3j);
         byte[] message = Bytes.concat(
@@ -503,7 +570,7 @@ public class MetaDelegator {
         String associatedAddress = key.getAddress();
 
         String identityRegistryAddress = registryAddress.identityRegistry;
-        IdentityRegistry identityRegistry = IdentityRegistry.load(registryAddress.identityRegistry, web3j, new NotSignTransactionManager(web3j), new ZeroContractGasProvider());
+        IdentityRegistry identityRegistry = getContracts().getIdentityRegistry();
         BigInteger ein = identityRegistry.getEIN(associatedAddress).send();
         long timestamp = getTimestamp(web3j);
         long timestampForAddKey = getTimestamp(web3j);
@@ -563,7 +630,7 @@ public class MetaDelegator {
         String addKeyAddress = Numeric.prependHexPrefix(Keys.getAddress(addPublicKey));
 
         String identityRegistryAddress = registryAddress.identityRegistry;
-        IdentityRegistry identityRegistry = IdentityRegistry.load(registryAddress.identityRegistry, web3j, new NotSignTransactionManager(web3j), new ZeroContractGasProvider());
+        IdentityRegistry identityRegistry = getContracts().getIdentityRegistry();
         BigInteger ein = identityRegistry.getEIN(associatedAddress).send();
         long timestamp = getTimestamp(web3j);
         
@@ -612,7 +679,7 @@ public class MetaDelegator {
         String associatedAddress = key.getAddress();
 
         String identityRegistryAddress = registryAddress.identityRegistry;
-        IdentityRegistry identityRegistry = IdentityRegistry.load(registryAddress.identityRegistry, web3j, new NotSignTransactionManager(web3j), new ZeroContractGasProvider());
+        IdentityRegistry identityRegistry = getContracts().getIdentityRegistry();
         BigInteger ein = identityRegistry.getEIN(associatedAddress).send();
         long timestamp = getTimestamp(web3j);
         byte[] message = Bytes.concat(
@@ -739,6 +806,7 @@ public class MetaDelegator {
     	// 조회할 block number
     	DefaultBlockParameterNumber blockParameterNumber = new DefaultBlockParameterNumber(blockNumber);
     	
+    	// new wrappers. shared wrappers of getContracts() must not change block parameter
     	IdentityRegistry identityRegistry = IdentityRegistry.load(registryAddress.identityRegistry, web3j, new ReadonlyTransactionManager(web3j, null), new ZeroContractGasProvider());
     	identityRegistry.setDefaultBlockParameter(blockParameterNumber);
     	Tuple4<String, List<String>, List<String>, List<String>> identity = identityRegistry.getIdentity(ein).send();
@@ -0,0 +1,47 @@
+package com.metadium.did.protocol;
+
+import org.web3j.protocol.Web3j;
+
+import com.metadium.did.contract.IdentityRegistry;
+import com.metadium.did.protocol.data.RegistryAddress;
+import com.metadium.did.wapper.NotSignTransactionManager;
+import com.metadium.did.wapper.ZeroContractGasProvider;
+
+/**
+ * Reusable read-only contract wrappers of registry addresses.<br/>
+ * Wrappers are loaded once per {@link MetaDelegator} and shared by threads.
+ * Do not change default block parameter of returned wrapper. Load new wrapper to call at past block.
+ *
+ * @see MetaDelegator#getContracts()
+ */
+public class RegistryContracts {
+    private final RegistryAddress registryAddress;
+
+    private final IdentityRegistry identityRegistry;
+
+    /**
+     * Create wrappers
+     * @param web3j web3j
+     * @param registryAddress registry addresses
+     */
+    public RegistryContracts(Web3j web3j, RegistryAddress registryAddress) {
+        this.registryAddress = registryAddress;
+        this.identityRegistry = IdentityRegistry.load(registryAddress.identityRegistry, web3j, new NotSignTransactionManager(web3j), new ZeroContractGasProvider());
+    }
+
+    /**
+     * Get registry addresses
+     * @return registry address
+     */
+    public RegistryAddress getRegistryAddress() {
+        return registryAddress;
+    }
+
+    /**
+     * Get IdentityRegistry contract
+     * @return IdentityRegistry
+     */
+    public IdentityRegistry getIdentityRegistry() {
+        return identityRegistry;
+    }
+}
@@ -0,0 +1,511 @@
+package com.metadium.did.protocol;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.response.EthBlockNumber;
+import org.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Shared tracker of transaction receipts.<br/>
+ * Pending transaction hashes are polled together with JSON-RPC batch request of {@link Web3j#newBatch()} on one scheduler thread,
+ * so waiting callers do not hold a thread and each hash is requested once per interval however many callers wait for it.
+ * If node does not support batch request, hashes are requested one by one in the same poll.<p/>
+ *
+ * In block driven mode (default) each poll requests only eth_blockNumber and receipts are requested when new block is found,
+ * or when hash is newly added. Block height can be pushed by new heads subscription with {@link #subscribeNewHeads(Web3j)}
+ * if transport supports it. Receipt is completed after given number of confirmations.
+ * <pre>
+ * TransactionReceiptPoller poller = metaDelegator.getReceiptPoller();
+ * poller.setConfirmations(3);
+ * poller.getTransactionReceipt(txHash).thenAccept(receipt -&gt; ...);
+ * </pre>
+ */
+public class TransactionReceiptPoller implements Closeable {
+    /** Default interval of poll. milliseconds */
+    public static final long DEFAULT_POLL_INTERVAL = 1000;
+
+    /** Default time to wait receipt. milliseconds */
+    public static final long DEFAULT_TIMEOUT = 30000;
+
+    /** Default maximum number of request in one batch */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    /** idle time before scheduler thread is stopped. milliseconds */
+    private static final long SCHEDULER_KEEP_ALIVE = 60000;
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final Web3j web3j;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /** pending receipt by tx hash */
+    private final ConcurrentHashMap<String, Pending> pendings = new ConcurrentHashMap<>();
+
+    private volatile long pollInterval = DEFAULT_POLL_INTERVAL;
+
+    private volatile long timeout = DEFAULT_TIMEOUT;
+
+    private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+
+    /** executor to complete futures. dependent stages are not run on scheduler thread */
+    private volatile Executor callbackExecutor = ForkJoinPool.commonPool();
+
+    /** false if node replied batch request is not supported */
+    private volatile boolean batchSupported = true;
+
+    /** request receipts only when block is added */
+    private volatile boolean blockDriven = true;
+
+    /** number of blocks on block of receipt before completed */
+    private volatile int confirmations;
+
+    /** new heads subscription. null if block number is polled */
+    private volatile Disposable headSubscription;
+
+    /** latest block number from subscription */
+    private volatile BigInteger subscribedHead;
+
+    /** block number of last receipt request. accessed on scheduler thread */
+    private BigInteger lastCheckedHead;
+
+    /** scheduled poll. null if no pending receipt */
+    private ScheduledFuture<?> pollTask;
+
+    /**
+     * Create poller. Scheduler thread is started when receipt is requested and stopped when idle
+     * @param web3j web3j of node
+     */
+    public TransactionReceiptPoller(Web3j web3j) {
+        this.web3j = web3j;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "did-receipt-poller-"+THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler.setKeepAliveTime(SCHEDULER_KEEP_ALIVE, TimeUnit.MILLISECONDS);
+        this.scheduler.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Set interval of poll
+     * @param pollInterval milliseconds
+     */
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Set time to wait receipt. Applied to hashes requested after set
+     * @param timeout milliseconds
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Set block driven mode. If true, receipts are requested only when new block is found. Otherwise every poll
+     * @param blockDriven block driven mode
+     */
+    public void setBlockDriven(boolean blockDriven) {
+        this.blockDriven = blockDriven;
+    }
+
+    /**
+     * Set number of blocks required on block of transaction before receipt is completed
+     * @param confirmations number of confirmations. 0 is completed when mined
+     */
+    public void setConfirmations(int confirmations) {
+        this.confirmations = Math.max(0, confirmations);
+    }
+
+    /**
+     * Subscribe new heads to get block height instead of polling eth_blockNumber.<br/>
+     * Transport of web3j must support subscription like WebSocketService. Falls back to polling on subscription error.
+     * @param web3j web3j of websocket
+     * @throws UnsupportedOperationException transport does not support subscription
+     */
+    public void subscribeNewHeads(Web3j web3j) {
+        Disposable old = headSubscription;
+        headSubscription = web3j.newHeadsNotifications().subscribe(
+                notification -> onNewHead(Numeric.decodeQuantity(notification.getParams().getResult().getNumber())),
+                e -> {
+                    headSubscription = null;
+                    subscribedHead = null;
+                }
+        );
+        if (old != null) {
+            old.dispose();
+        }
+    }
+
+    /**
+     * Set maximum number of request in one batch
+     * @param maxBatchSize maximum batch size
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+    }
+
+    /**
+     * Set executor to complete futures
+     * @param callbackExecutor executor. null is {@link ForkJoinPool#commonPool()}
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor == null ? ForkJoinPool.commonPool() : callbackExecutor;
+    }
+
+    /**
+     * Get number of pending transaction
+     * @return count
+     */
+    public int getPendingCount() {
+        return pendings.size();
+    }
+
+    /**
+     * Wait transaction receipt
+     * @param transactionHash tx hash
+     * @return future of receipt. failed with {@link IOException} on timeout or {@link JSONRPCException} on node error
+     */
+    public CompletableFuture<TransactionReceipt> getTransactionReceipt(String transactionHash) {
+        return getTransactionReceipt(transactionHash, timeout).future;
+    }
+
+    /**
+     * Wait transaction receipt blocking current thread
+     * @param transactionHash tx hash
+     * @return receipt
+     * @throws IOException io error or timeout
+     * @throws JSONRPCException node error
+     */
+    public TransactionReceipt waitTransactionReceipt(String transactionHash) throws IOException, JSONRPCException {
+        long timeout = this.timeout;
+        Pending pending = getTransactionReceipt(transactionHash, timeout);
+        try {
+            // future is failed on deadline. bounded wait in case scheduler is stopped
+            long remaining = Math.max(0, pending.deadline - System.currentTimeMillis());
+            return pending.future.get(remaining + pollInterval + 1000, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException e) {
+            throw new IOException("timeout");
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            if (cause instanceof JSONRPCException) {
+                throw (JSONRPCException)cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Stop poll. Pending futures are failed
+     */
+    @Override
+    public void close() {
+        Disposable subscription = headSubscription;
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        scheduler.shutdownNow();
+        for (Map.Entry<String, Pending> entry : pendings.entrySet()) {
+            fail(entry.getKey(), entry.getValue(), new IOException("Poller closed"));
+        }
+    }
+
+    /**
+     * Add pending hash and its timeout
+     * @param transactionHash tx hash
+     * @param timeout milliseconds
+     * @return pending of hash. existing one if hash is already waited
+     */
+    private Pending getTransactionReceipt(String transactionHash, long timeout) {
+        Pending pending = new Pending(System.currentTimeMillis() + timeout);
+        Pending existing = pendings.putIfAbsent(transactionHash, pending);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            // deadline does not depend on poll. failed even if poll is stuck
+            pending.timeoutTask = scheduler.schedule(() -> fail(transactionHash, pending, new IOException("timeout")), timeout, TimeUnit.MILLISECONDS);
+            schedule();
+        }
+        catch (RejectedExecutionException e) {
+            fail(transactionHash, pending, new IOException("Poller closed"));
+        }
+        return pending;
+    }
+
+    /**
+     * Start poll task if not running
+     */
+    private synchronized void schedule() {
+        if (pollTask == null) {
+            long interval = pollInterval;
+            pollTask = scheduler.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * New block is added. Check receipts immediately
+     * @param blockNumber block number of head
+     */
+    private void onNewHead(BigInteger blockNumber) {
+        subscribedHead = blockNumber;
+        if (!pendings.isEmpty()) {
+            try {
+                scheduler.execute(this::poll);
+            }
+            catch (RejectedExecutionException e) {
+                // closed
+            }
+        }
+    }
+
+    /**
+     * Poll pending hashes. Run on scheduler thread.<br/>
+     * Exception must not escape, otherwise periodic task is cancelled silently
+     */
+    private void poll() {
+        try {
+            pollOnce();
+        }
+        catch (RuntimeException e) {
+            // unexpected response. retry in next poll until timeout
+            lastCheckedHead = null;
+        }
+        finally {
+            stopIfIdle();
+        }
+    }
+
+    private void pollOnce() {
+        if (pendings.isEmpty()) {
+            return;
+        }
+
+        boolean blockDriven = this.blockDriven;
+        int confirmations = this.confirmations;
+        BigInteger head = null;
+        boolean newBlock = true;
+        if (blockDriven || confirmations > 0) {
+            head = headSubscription == null ? null : subscribedHead;
+            if (head == null) {
+                try {
+                    head = requestBlockNumber();
+                }
+                catch (IOException e) {
+                    // network error. retry in next poll until timeout
+                    return;
+                }
+            }
+            newBlock = lastCheckedHead == null || head.compareTo(lastCheckedHead) > 0;
+        }
+
+        // hashes not requested yet are checked without waiting next block
+        List<String> hashes = new ArrayList<>();
+        for (Map.Entry<String, Pending> entry : pendings.entrySet()) {
+            if (!blockDriven || newBlock || !entry.getValue().checked) {
+                hashes.add(entry.getKey());
+            }
+        }
+        if (newBlock && head != null) {
+            lastCheckedHead = head;
+        }
+
+        int batchSize = maxBatchSize;
+        for (int from = 0; from < hashes.size(); from += batchSize) {
+            List<String> batch = hashes.subList(from, Math.min(hashes.size(), from + batchSize));
+            try {
+                Map<String, EthGetTransactionReceipt> responses = batchSupported ? requestBatch(batch) : requestEach(batch);
+                for (Map.Entry<String, EthGetTransactionReceipt> entry : responses.entrySet()) {
+                    Pending pending = pendings.get(entry.getKey());
+                    if (pending == null) {
+                        continue;
+                    }
+                    pending.checked = true;
+                    EthGetTransactionReceipt response = entry.getValue();
+                    if (response.hasError()) {
+                        fail(entry.getKey(), pending, new JSONRPCException(response.getError()));
+                    }
+                    else if (response.getTransactionReceipt().isPresent()) {
+                        // receipt is requested again on each block until confirmed, so block of reorganized tx is updated
+                        TransactionReceipt receipt = response.getTransactionReceipt().get();
+                        if (confirmations == 0 || head.subtract(receipt.getBlockNumber()).compareTo(BigInteger.valueOf(confirmations)) >= 0) {
+                            complete(entry.getKey(), pending, receipt);
+                        }
+                    }
+                }
+            }
+            catch (IOException e) {
+                // network error. retry in next poll until timeout
+                if (head != null && head.equals(lastCheckedHead)) {
+                    lastCheckedHead = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop poll task if no pending hash
+     */
+    private synchronized void stopIfIdle() {
+        if (pendings.isEmpty() && pollTask != null) {
+            pollTask.cancel(false);
+            pollTask = null;
+        }
+    }
+
+    /**
+     * Request receipts with one batch request. Falls back to one by one if node replies batch is not supported
+     * @param hashes tx hashes
+     * @return response by hash
+     * @throws IOException network error
+     */
+    private Map<String, EthGetTransactionReceipt> requestBatch(List<String> hashes) throws IOException {
+        BatchRequest batch = web3j.newBatch();
+        Map<Long, String> hashOfId = new HashMap<>();
+        for (String hash : hashes) {
+            Request<?, EthGetTransactionReceipt> request = web3j.ethGetTransactionReceipt(hash);
+            hashOfId.put(request.getId(), hash);
+            batch.add(request);
+        }
+
+        // IOException is network error. batch is kept and retried in next poll
+        BatchResponse batchResponse;
+        try {
+            batchResponse = batch.send();
+        }
+        catch (ClassCastException e) {
+            // reply is not array. node does not support batch request
+            batchSupported = false;
+            return requestEach(hashes);
+        }
+
+        // match response with request by id
+        Map<String, EthGetTransactionReceipt> responses = new HashMap<>();
+        for (Response<?> response : batchResponse.getResponses()) {
+            String hash = hashOfId.get(response.getId());
+            if (hash != null && response instanceof EthGetTransactionReceipt) {
+                responses.put(hash, (EthGetTransactionReceipt)response);
+            }
+        }
+        if (responses.isEmpty() && !batchResponse.getResponses().isEmpty() && batchResponse.getResponses().get(0).hasError()) {
+            // only error of batch itself is replied. node does not support batch request
+            batchSupported = false;
+            return requestEach(hashes);
+        }
+        return responses;
+    }
+
+    /**
+     * Request receipts one by one
+     * @param hashes tx hashes
+     * @return response by hash
+     * @throws IOException network error
+     */
+    private Map<String, EthGetTransactionReceipt> requestEach(List<String> hashes) throws IOException {
+        Map<String, EthGetTransactionReceipt> responses = new HashMap<>();
+        for (String hash : hashes) {
+            responses.put(hash, web3j.ethGetTransactionReceipt(hash).send());
+        }
+        return responses;
+    }
+
+    /**
+     * Request current block number
+     * @return block number
+     * @throws IOException network or node error
+     */
+    private BigInteger requestBlockNumber() throws IOException {
+        EthBlockNumber response = web3j.ethBlockNumber().send();
+        if (response.hasError()) {
+            throw new IOException(new JSONRPCException(response.getError()));
+        }
+        return response.getBlockNumber();
+    }
+
+    private void complete(String transactionHash, Pending pending, TransactionReceipt receipt) {
+        if (pendings.remove(transactionHash, pending)) {
+            pending.cancelTimeout();
+            runCallback(() -> pending.future.complete(receipt));
+        }
+    }
+
+    private void fail(String transactionHash, Pending pending, Exception e) {
+        if (pendings.remove(transactionHash, pending)) {
+            pending.cancelTimeout();
+            runCallback(() -> pending.future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Run completion on callback executor. Run on current thread if rejected, so future is always completed
+     */
+    private void runCallback(Runnable callback) {
+        try {
+            callbackExecutor.execute(callback);
+        }
+        catch (RejectedExecutionException e) {
+            callback.run();
+        }
+    }
+
+    private static class Pending {
+        final CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+        final long deadline;
+
+        /** fails future on deadline */
+        volatile ScheduledFuture<?> timeoutTask;
+
+        /** receipt is requested once. accessed on scheduler thread */
+        boolean checked;
+
+        Pending(long deadline) {
+            this.deadline = deadline;
+        }
+
+        void cancelTimeout() {
+            ScheduledFuture<?> task = timeoutTask;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.metadium.did.util;
 
 import com.metadium.did.contract.IdentityRegistry;
 import com.metadium.did.contract.PublicKeyResolver;
+import com.metadium.did.protocol.RegistryContracts;
 import com.metadium.did.protocol.data.RegistryAddress;
 import com.metadium.did.wapper.ZeroContractGasProvider;
 
@@ -37,6 +38,19 @@ public class IdentityRegistryHelper {
         return getServiceKeyResolverAddressOfIdentity(identityRegistry, registryAddress, ein);
     }
 
+    /**
+     * associatedAddress 해당하는 Identity 에 resolverAddress 를 반환한다. 재사용 contract 를 사용.
+     * @param contracts         {@link com.metadium.did.protocol.MetaDelegator#getContracts()}
+     * @param associatedAddress resolverAddress 를 확인할 assoicatedAddress
+     * @return ServiceKeyResolver 의 address
+     * @throws Exception resolver address 가 없거나 ethCall 에러
+     */
+    public static String getServiceKeyResolverAddressOfIdentity(RegistryContracts contracts, String associatedAddress) throws Exception {
+        IdentityRegistry identityRegistry = contracts.getIdentityRegistry();
+        BigInteger ein = identityRegistry.getEIN(associatedAddress).send();
+        return getServiceKeyResolverAddressOfIdentity(identityRegistry, contracts.getRegistryAddress(), ein);
+    }
+
     /**
      * 해당 Identity 의 Metadium의 ServiceKeyResolver 의 address 를 반환한다.<br/>
      * @param identityRegistry IdentityRegistry contract object
@@ -67,7 +67,8 @@ public class Web3jUtils {
     }
 
     /**
-     * GetTransactionReceipt with ExponentialBackOff
+     * GetTransactionReceipt with ExponentialBackOff.<br/>
+     * Blocks current thread while waiting. Use {@link com.metadium.did.protocol.TransactionReceiptPoller} to wait many transactions.
      * @param web3j           web3
      * @param transactionHash tx hash
      * @return transaction receipt
@@ -0,0 +1,264 @@
+package com.metadium.did.util.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, thread-safe LRU cache with write/access expiry.<br>
+ * Entries are spread over lock-striped segments. Each segment is an access ordered {@link LinkedHashMap},
+ * so eviction is LRU within a segment and threads touching different segments never contend.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class LruCache<K, V> {
+    /**
+     * The default number of segments.
+     */
+    public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private final Segment<K, V>[] segments;
+
+    private final int segmentMask;
+
+    private final long expireAfterWriteMillis;
+
+    private final long expireAfterAccessMillis;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * Create cache
+     * @param maximumSize             maximum number of entries
+     * @param expireAfterWriteMillis  entry expires after this time since written. 0 or less is not expired
+     * @param expireAfterAccessMillis entry expires after this time since last accessed. 0 or less is not expired
+     * @param concurrencyLevel        number of lock stripes
+     */
+    @SuppressWarnings("unchecked")
+    public LruCache(int maximumSize, long expireAfterWriteMillis, long expireAfterAccessMillis, int concurrencyLevel) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        int segmentCount = 1;
+        while (segmentCount < concurrencyLevel && segmentCount < maximumSize) {
+            segmentCount <<= 1;
+        }
+        int segmentCapacity = (maximumSize + segmentCount - 1) / segmentCount;
+
+        this.segments = (Segment<K, V>[])new Segment<?, ?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity, evictionCount);
+        }
+        this.segmentMask = segmentCount - 1;
+        this.expireAfterWriteMillis = expireAfterWriteMillis;
+        this.expireAfterAccessMillis = expireAfterAccessMillis;
+    }
+
+    /**
+     * Create cache with {@link #DEFAULT_CONCURRENCY_LEVEL}
+     * @see #LruCache(int, long, long, int)
+     */
+    public LruCache(int maximumSize, long expireAfterWriteMillis, long expireAfterAccessMillis) {
+        this(maximumSize, expireAfterWriteMillis, expireAfterAccessMillis, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & segmentMask];
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        if (expireAfterWriteMillis > 0 && now - entry.writeTime >= expireAfterWriteMillis) {
+            return true;
+        }
+        return expireAfterAccessMillis > 0 && now - entry.accessTime >= expireAfterAccessMillis;
+    }
+
+    /**
+     * Get value
+     * @param key key
+     * @return value. null if not exists or expired
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.currentTimeMillis();
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry != null) {
+                if (!isExpired(entry, now)) {
+                    entry.accessTime = now;
+                    hitCount.incrementAndGet();
+                    return entry.value;
+                }
+                segment.remove(key);
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Get value without updating access time and statistics. Expired entry is not removed
+     * @param key key
+     * @return value. null if not exists or expired
+     */
+    public V peek(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            return entry == null || isExpired(entry, System.currentTimeMillis()) ? null : entry.value;
+        }
+    }
+
+    /**
+     * Put value. Least recently used entry of segment is evicted when full.
+     * @param key   key
+     * @param value value
+     */
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.currentTimeMillis();
+        synchronized (segment) {
+            segment.put(key, new Entry<>(value, now));
+        }
+    }
+
+    /**
+     * Remove value
+     * @param key key
+     * @return removed value. null if not exists
+     */
+    public V remove(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.remove(key);
+            return entry == null ? null : entry.value;
+        }
+    }
+
+    /**
+     * Remove values of which key matches filter
+     * @param filter key filter
+     */
+    public void removeIf(Predicate<? super K> filter) {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.keySet().removeIf(filter);
+            }
+        }
+    }
+
+    /**
+     * Perform action for each not expired entry. Action is called while holding segment lock, so it should be short.
+     * @param action action of key and value
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        long now = System.currentTimeMillis();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                for (Map.Entry<K, Entry<V>> entry : segment.entrySet()) {
+                    if (!isExpired(entry.getValue(), now)) {
+                        action.accept(entry.getKey(), entry.getValue().value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all values
+     */
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Remove expired entries. Expired entries are also removed lazily on {@link #get(Object)}.
+     */
+    public void cleanUp() {
+        long now = System.currentTimeMillis();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                Iterator<Entry<V>> it = segment.values().iterator();
+                while (it.hasNext()) {
+                    if (isExpired(it.next(), now)) {
+                        it.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of entries including not yet removed expired entries
+     * @return size
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long writeTime;
+        volatile long accessTime;
+
+        Entry(V value, long now) {
+            this.value = value;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+    }
+
+    private static class Segment<K, V> extends LinkedHashMap<K, Entry<V>> {
+        private static final long serialVersionUID = -2838194567740319652L;
+
+        private final int capacity;
+        private final AtomicLong evictionCount;
+
+        Segment(int capacity, AtomicLong evictionCount) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictionCount = evictionCount;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > capacity) {
+                evictionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.metadium.did.verifiable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.metadium.did.exception.DidException;
+import com.nimbusds.jwt.SignedJWT;
+
+/**
+ * Verify line-delimited JWTs of large file or stream with {@link Verifier}.<p/>
+ *
+ * Each line is a compact JWT or JSON string of it. Empty lines are skipped.
+ * Lines are parsed and verified in parallel on executor with at most maxInFlight lines at once,
+ * and results are written in input order as soon as verified. Reading waits while window is full,
+ * so memory use does not grow with input size.
+ * <pre>
+ * BulkVerifier bulkVerifier = new BulkVerifier(verifier, 64, executor);
+ * try (Writer out = new FileWriter("result.ndjson")) {
+ *     BulkVerifier.Summary summary = bulkVerifier.verify(new File("vc.ndjson"), BulkVerifier.ndjsonWriter(out));
+ * }
+ * </pre>
+ */
+public class BulkVerifier {
+	/**
+	 * Receiver of result of each line. Called on caller thread of verify in input order
+	 */
+	public interface ResultWriter {
+		/**
+		 * Write result of line
+		 * @param lineNumber line number. starts from 1
+		 * @param result verified result. jwt is null if line is not valid jwt
+		 * @throws IOException write error. stops verification
+		 */
+		void write(long lineNumber, VerifyResult result) throws IOException;
+	}
+
+	private final Verifier verifier;
+
+	private final int maxInFlight;
+
+	private final Executor executor;
+
+	/**
+	 * Create bulk verifier
+	 * @param verifier verifier
+	 * @param maxInFlight maximum number of lines being verified at once
+	 * @param executor executor to parse and verify lines
+	 */
+	public BulkVerifier(Verifier verifier, int maxInFlight, Executor executor) {
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("maxInFlight must be positive");
+		}
+		this.verifier = verifier;
+		this.maxInFlight = maxInFlight;
+		this.executor = executor;
+	}
+
+	/**
+	 * Create bulk verifier with {@link ForkJoinPool#commonPool()}. maxInFlight is 4 times of parallelism
+	 * @param verifier verifier
+	 */
+	public BulkVerifier(Verifier verifier) {
+		this(verifier, ForkJoinPool.commonPool().getParallelism() * 4, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Verify lines of file
+	 * @see #verify(InputStream, ResultWriter)
+	 */
+	public Summary verify(File file, ResultWriter writer) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			return verify(in, writer);
+		}
+	}
+
+	/**
+	 * Verify lines of stream. Stream is read as UTF-8 and not closed
+	 * @param in line-delimited JWTs
+	 * @param writer receiver of result
+	 * @return count of results
+	 * @throws IOException read error or write error of writer
+	 */
+	public Summary verify(InputStream in, ResultWriter writer) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		ArrayDeque<Line> window = new ArrayDeque<>(maxInFlight);
+		Summary summary = new Summary();
+
+		long lineNumber = 0;
+		String text;
+		while ((text = reader.readLine()) != null) {
+			lineNumber++;
+			String token = toToken(text);
+			if (token == null) {
+				continue;
+			}
+			if (window.size() >= maxInFlight) {
+				// backpressure. wait oldest line
+				write(window.poll(), writer, summary);
+			}
+			window.add(new Line(lineNumber, verifyLine(token)));
+		}
+		while (!window.isEmpty()) {
+			write(window.poll(), writer, summary);
+		}
+		return summary;
+	}
+
+	/**
+	 * Verify token on executor
+	 * @return future of result. never completes exceptionally
+	 */
+	private CompletableFuture<VerifyResult> verifyLine(String token) {
+		CompletableFuture<VerifyResult> future;
+		try {
+			future = CompletableFuture.supplyAsync(() -> verify(token), executor).thenCompose(result -> result);
+		}
+		catch (RejectedExecutionException e) {
+			future = SingleFlight.failedFuture(e);
+		}
+		return future.handle((result, e) -> e != null ? VerifyResult.failure(null, SingleFlight.unwrap(e)) : result);
+	}
+
+	private CompletableFuture<VerifyResult> verify(String token) {
+		SignedJWT signedJWT;
+		try {
+			signedJWT = SignedJWT.parse(token);
+		}
+		catch (ParseException e) {
+			return CompletableFuture.completedFuture(VerifyResult.failure(null, new DidException("Invalid jwt", e)));
+		}
+		return verifier.verifyAsync(signedJWT, executor).handle((verified, e) -> {
+			if (e != null) {
+				return VerifyResult.failure(signedJWT, SingleFlight.unwrap(e));
+			}
+			return new VerifyResult(signedJWT, verified, null);
+		});
+	}
+
+	private static void write(Line line, ResultWriter writer, Summary summary) throws IOException {
+		VerifyResult result = line.future.join();
+		if (result.getError() != null) {
+			summary.errorCount++;
+		}
+		else if (result.isVerified()) {
+			summary.verifiedCount++;
+		}
+		else {
+			summary.notVerifiedCount++;
+		}
+		writer.write(line.lineNumber, result);
+	}
+
+	/**
+	 * Get token of line
+	 * @return compact jwt. null if empty line
+	 */
+	private static String toToken(String line) {
+		String token = line.trim();
+		if (token.length() >= 2 && token.charAt(0) == '"' && token.charAt(token.length() - 1) == '"') {
+			token = token.substring(1, token.length() - 1);
+		}
+		return token.isEmpty() ? null : token;
+	}
+
+	/**
+	 * Writer of result as NDJSON. {"line":1,"verified":true} or {"line":2,"verified":false,"error":"..."}
+	 * @param out output. not closed
+	 * @return result writer
+	 */
+	public static ResultWriter ndjsonWriter(Writer out) {
+		return (lineNumber, result) -> {
+			out.write("{\"line\":"+lineNumber+",\"verified\":"+result.isVerified());
+			if (result.getError() != null) {
+				out.write(",\"error\":\""+escape(String.valueOf(result.getError().getMessage()))+"\"");
+			}
+			out.write("}\n");
+		};
+	}
+
+	private static String escape(String value) {
+		StringBuilder sb = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			}
+			else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int)c));
+			}
+			else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	private static class Line {
+		final long lineNumber;
+		final CompletableFuture<VerifyResult> future;
+
+		Line(long lineNumber, CompletableFuture<VerifyResult> future) {
+			this.lineNumber = lineNumber;
+			this.future = future;
+		}
+	}
+
+	/**
+	 * Count of results
+	 */
+	public static class Summary {
+		private long verifiedCount;
+		private long notVerifiedCount;
+		private long errorCount;
+
+		/**
+		 * Number of verified lines
+		 * @return count
+		 */
+		public long getVerifiedCount() {
+			return verifiedCount;
+		}
+
+		/**
+		 * Number of lines of which signature is not valid
+		 * @return count
+		 */
+		public long getNotVerifiedCount() {
+			return notVerifiedCount;
+		}
+
+		/**
+		 * Number of lines failed with error. invalid jwt, not found did, network error
+		 * @return count
+		 */
+		public long getErrorCount() {
+			return errorCount;
+		}
+
+		@Override
+		public String toString() {
+			return "Summary{verified="+verifiedCount+", notVerified="+notVerifiedCount+", error="+errorCount+"}";
+		}
+	}
+}
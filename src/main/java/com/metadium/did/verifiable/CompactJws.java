@@ -0,0 +1,132 @@
+package com.metadium.did.verifiable;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+/**
+ * Compact serialized JWS of which only protected header is parsed.<p/>
+ *
+ * Use to read kid, did of token for routing without decoding payload.
+ * Same object can be verified with {@link Verifier#verify(CompactJws)} without parsing header again.
+ * <pre>
+ * CompactJws jws = CompactJws.parse(token);
+ * String did = jws.getDid();
+ * ...
+ * boolean verified = verifier.verify(jws);
+ * </pre>
+ */
+public class CompactJws {
+	private final String serialized;
+
+	private final int firstDot;
+
+	private final int secondDot;
+
+	private final JWSHeader header;
+
+	private volatile JWTClaimsSet claimsSet;
+
+	private CompactJws(String serialized, int firstDot, int secondDot, JWSHeader header) {
+		this.serialized = serialized;
+		this.firstDot = firstDot;
+		this.secondDot = secondDot;
+		this.header = header;
+	}
+
+	/**
+	 * Parse protected header of compact serialized JWS
+	 * @param serialized header.payload.signature
+	 * @return jws
+	 * @throws ParseException invalid compact JWS or header
+	 */
+	public static CompactJws parse(String serialized) throws ParseException {
+		int firstDot = serialized.indexOf('.');
+		if (firstDot < 0) {
+			throw new ParseException("Invalid serialized JWS. Missing part delimiters", 0);
+		}
+		int secondDot = serialized.indexOf('.', firstDot + 1);
+		if (secondDot < 0 || serialized.indexOf('.', secondDot + 1) >= 0) {
+			throw new ParseException("Invalid serialized JWS. Must have 3 parts", 0);
+		}
+		JWSHeader header = JWSHeader.parse(new Base64URL(serialized.substring(0, firstDot)));
+		return new CompactJws(serialized, firstDot, secondDot, header);
+	}
+
+	public String serialize() {
+		return serialized;
+	}
+
+	public JWSHeader getHeader() {
+		return header;
+	}
+
+	/**
+	 * Get key id
+	 * @return kid. null if not exists
+	 */
+	public String getKeyID() {
+		return header.getKeyID();
+	}
+
+	/**
+	 * Get did of key id
+	 * @return did. null if key id is not did key id
+	 */
+	public String getDid() {
+		String kid = header.getKeyID();
+		int idx = kid == null ? -1 : kid.indexOf('#');
+		return idx < 0 ? null : kid.substring(0, idx);
+	}
+
+	/**
+	 * Get bytes of signing input. header.payload
+	 * @return signing input
+	 */
+	public byte[] getSigningInput() {
+		return serialized.substring(0, secondDot).getBytes(StandardCharsets.UTF_8);
+	}
+
+	public Base64URL getSignature() {
+		return new Base64URL(serialized.substring(secondDot + 1));
+	}
+
+	/**
+	 * Verify signature. Same as {@link SignedJWT#verify(JWSVerifier)} without parsing token again
+	 * @param verifier verifier of public key
+	 * @return true if signature verified
+	 * @throws JOSEException verifier can not verify signature
+	 */
+	public boolean verify(JWSVerifier verifier) throws JOSEException {
+		return verifier.verify(header, getSigningInput(), getSignature());
+	}
+
+	/**
+	 * Get claims. Payload is decoded on first call
+	 * @return claims
+	 * @throws ParseException payload is not JWT claims
+	 */
+	public JWTClaimsSet getJWTClaimsSet() throws ParseException {
+		JWTClaimsSet claimsSet = this.claimsSet;
+		if (claimsSet == null) {
+			claimsSet = JWTClaimsSet.parse(new Base64URL(serialized.substring(firstDot + 1, secondDot)).decodeToString());
+			this.claimsSet = claimsSet;
+		}
+		return claimsSet;
+	}
+
+	/**
+	 * Parse whole token
+	 * @return signed jwt
+	 * @throws ParseException invalid payload
+	 */
+	public SignedJWT toSignedJWT() throws ParseException {
+		return SignedJWT.parse(serialized);
+	}
+}
@@ -0,0 +1,82 @@
+package com.metadium.did.verifiable;
+
+import com.metadium.did.util.cache.LruCache;
+import com.metaidum.did.resolver.client.document.DidDocument;
+
+/**
+ * Bounded DID document cache with LRU eviction and write/access expiry.
+ * 
+ * @see LruCache
+ */
+public class DefaultDidDocumentCache implements DidDocumentCache {
+	/** Default maximum number of documents */
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+	
+	/** Default expiry after written. 1 hour */
+	public static final long DEFAULT_EXPIRE_AFTER_WRITE = 60 * 60 * 1000L;
+	
+	/** Default expiry after last accessed. 10 minutes */
+	public static final long DEFAULT_EXPIRE_AFTER_ACCESS = 10 * 60 * 1000L;
+	
+	private final LruCache<String, DidDocument> cache;
+	
+	/**
+	 * Create cache
+	 * @param maximumSize maximum number of documents
+	 * @param expireAfterWriteMillis document expires after this time since resolved. 0 or less is not expired
+	 * @param expireAfterAccessMillis document expires after this time since last used. 0 or less is not expired
+	 */
+	public DefaultDidDocumentCache(int maximumSize, long expireAfterWriteMillis, long expireAfterAccessMillis) {
+		cache = new LruCache<>(maximumSize, expireAfterWriteMillis, expireAfterAccessMillis);
+	}
+	
+	/**
+	 * Create cache with default settings
+	 * @see #DEFAULT_MAXIMUM_SIZE
+	 * @see #DEFAULT_EXPIRE_AFTER_WRITE
+	 * @see #DEFAULT_EXPIRE_AFTER_ACCESS
+	 */
+	public DefaultDidDocumentCache() {
+		this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_WRITE, DEFAULT_EXPIRE_AFTER_ACCESS);
+	}
+
+	@Override
+	public DidDocument get(String did) {
+		return cache.get(did);
+	}
+
+	@Override
+	public void put(String did, DidDocument document) {
+		cache.put(did, document);
+	}
+
+	@Override
+	public void invalidate(String did) {
+		cache.remove(did);
+	}
+
+	@Override
+	public void invalidateAll() {
+		cache.clear();
+	}
+	
+	/**
+	 * Number of cached documents
+	 * @return size
+	 */
+	public int size() {
+		return cache.size();
+	}
+	
+	public long getHitCount() {
+		return cache.getHitCount();
+	}
+	
+	public long getMissCount() {
+		return cache.getMissCount();
+	}
+	
+	public long getEvictionCount() {
+		return cache.getEvictionCount();
+	}
+}
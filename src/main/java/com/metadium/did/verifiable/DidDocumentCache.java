@@ -0,0 +1,37 @@
+package com.metadium.did.verifiable;
+
+import com.metaidum.did.resolver.client.document.DidDocument;
+
+/**
+ * Cache of resolved DID document used by {@link Verifier}.<p/>
+ * 
+ * Implementation must be thread-safe.
+ * 
+ * @see DefaultDidDocumentCache
+ */
+public interface DidDocumentCache {
+	/**
+	 * Get cached document
+	 * @param did did
+	 * @return DID document. null if not cached or expired
+	 */
+	DidDocument get(String did);
+	
+	/**
+	 * Put resolved document
+	 * @param did did
+	 * @param document DID document
+	 */
+	void put(String did, DidDocument document);
+	
+	/**
+	 * Remove cached document of did
+	 * @param did did
+	 */
+	void invalidate(String did);
+	
+	/**
+	 * Remove all cached documents
+	 */
+	void invalidateAll();
+}
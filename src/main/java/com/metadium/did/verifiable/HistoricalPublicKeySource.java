@@ -0,0 +1,185 @@
+package com.metadium.did.verifiable;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.interfaces.ECPublicKey;
+import java.util.Map;
+
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.methods.response.EthBlock;
+
+import com.metadium.did.exception.DidException;
+import com.metadium.did.protocol.MetaDelegator;
+import com.metadium.did.util.cache.LruCache;
+
+/**
+ * Public key of did at past block.<p/>
+ *
+ * Keys are read with {@link OnChainPublicKeySource#readPublicKeys(MetaDelegator, String, org.web3j.protocol.core.DefaultBlockParameter)}.
+ * Keys of block deeper than finality depth from head never change, so they are cached by (EIN, block) without expiry.
+ * Keys of recent block are not cached.
+ *
+ * @see Verifier#verifyAtBlock(com.nimbusds.jwt.SignedJWT, BigInteger)
+ */
+public class HistoricalPublicKeySource {
+	/** Default finality depth. number of blocks */
+	public static final int DEFAULT_FINALITY_DEPTH = 20;
+
+	/** Default maximum number of (EIN, block) */
+	public static final int DEFAULT_MAXIMUM_SIZE = 100000;
+
+	/** Maximum number of cached block timestamp */
+	private static final int TIMESTAMP_CACHE_SIZE = 10000;
+
+	private final MetaDelegator metaDelegator;
+
+	private final int finalityDepth;
+
+	/** public key by address of (EIN, block) */
+	private final LruCache<String, Map<String, ECPublicKey>> cache;
+
+	/** timestamp of final block */
+	private final LruCache<BigInteger, BigInteger> timestampCache = new LruCache<>(TIMESTAMP_CACHE_SIZE, 0, 0);
+
+	private final SingleFlight<Map<String, ECPublicKey>> inFlight = new SingleFlight<>();
+
+	/** last known head block number. Block final to this head is final to current head */
+	private volatile BigInteger knownHead = BigInteger.ZERO;
+
+	/**
+	 * Create source
+	 * @param metaDelegator delegator has node and registry address
+	 * @param finalityDepth number of blocks after which block is final
+	 * @param maximumSize maximum number of cached (EIN, block)
+	 */
+	public HistoricalPublicKeySource(MetaDelegator metaDelegator, int finalityDepth, int maximumSize) {
+		if (finalityDepth < 0) {
+			throw new IllegalArgumentException("finalityDepth must not be negative");
+		}
+		this.metaDelegator = metaDelegator;
+		this.finalityDepth = finalityDepth;
+		this.cache = new LruCache<>(maximumSize, 0, 0);
+	}
+
+	/**
+	 * Create source with default settings
+	 * @param metaDelegator delegator has node and registry address
+	 * @see #DEFAULT_FINALITY_DEPTH
+	 * @see #DEFAULT_MAXIMUM_SIZE
+	 */
+	public HistoricalPublicKeySource(MetaDelegator metaDelegator) {
+		this(metaDelegator, DEFAULT_FINALITY_DEPTH, DEFAULT_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * Get public key of kid at block
+	 * @param did did of kid
+	 * @param kid key id. did#MetaManagementKey#address
+	 * @param blockNumber block number
+	 * @return public key
+	 * @throws IOException node network error
+	 * @throws DidException Not found did or public key at block
+	 */
+	public ECPublicKey getPublicKey(String did, String kid, BigInteger blockNumber) throws IOException, DidException {
+		if (did == null || !did.matches(".*[0-9a-fA-F]{64}$")) {
+			throw new DidException("Did invalid");
+		}
+		String key = did.substring(did.length()-64).toLowerCase()+"@"+blockNumber;
+
+		Map<String, ECPublicKey> keys = cache.get(key);
+		if (keys == null) {
+			keys = inFlight.load(key, k -> {
+				Map<String, ECPublicKey> read = OnChainPublicKeySource.readPublicKeys(metaDelegator, did, new DefaultBlockParameterNumber(blockNumber));
+				if (isFinal(blockNumber)) {
+					cache.put(k, read);
+				}
+				return read;
+			});
+		}
+		return OnChainPublicKeySource.findPublicKey(keys, kid);
+	}
+
+	/**
+	 * Find last block of which timestamp is not after time
+	 * @param epochSeconds time. seconds since epoch
+	 * @return block number
+	 * @throws IOException node network error
+	 * @throws DidException time is before genesis block
+	 */
+	public BigInteger getBlockNumberAt(long epochSeconds) throws IOException, DidException {
+		BigInteger time = BigInteger.valueOf(epochSeconds);
+		BigInteger low = BigInteger.ZERO;
+		BigInteger high = refreshHead();
+		if (getTimestamp(low).compareTo(time) > 0) {
+			throw new DidException("Time is before genesis block. "+epochSeconds);
+		}
+		if (getTimestamp(high).compareTo(time) <= 0) {
+			return high;
+		}
+
+		// timestamp(low) <= time < timestamp(high)
+		while (high.subtract(low).compareTo(BigInteger.ONE) > 0) {
+			BigInteger mid = low.add(high).shiftRight(1);
+			if (getTimestamp(mid).compareTo(time) <= 0) {
+				low = mid;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Remove all cached keys
+	 */
+	public void invalidateAll() {
+		cache.clear();
+		timestampCache.clear();
+	}
+
+	/**
+	 * Number of cached (EIN, block)
+	 * @return size
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	private BigInteger getTimestamp(BigInteger blockNumber) throws IOException, DidException {
+		BigInteger timestamp = timestampCache.get(blockNumber);
+		if (timestamp != null) {
+			return timestamp;
+		}
+
+		EthBlock.Block block = metaDelegator.getWeb3j().ethGetBlockByNumber(new DefaultBlockParameterNumber(blockNumber), false).send().getBlock();
+		if (block == null) {
+			throw new DidException("Not found block. "+blockNumber);
+		}
+		timestamp = block.getTimestamp();
+		if (isFinal(blockNumber)) {
+			timestampCache.put(blockNumber, timestamp);
+		}
+		return timestamp;
+	}
+
+	/**
+	 * Check block is deeper than finality depth from head.
+	 * Head is requested only when block is not final to last known head.
+	 */
+	private boolean isFinal(BigInteger blockNumber) throws IOException {
+		BigInteger depth = BigInteger.valueOf(finalityDepth);
+		if (knownHead.subtract(blockNumber).compareTo(depth) >= 0) {
+			return true;
+		}
+		return refreshHead().subtract(blockNumber).compareTo(depth) >= 0;
+	}
+
+	private BigInteger refreshHead() throws IOException {
+		BigInteger head = metaDelegator.currentBlockNumber();
+		if (head.compareTo(knownHead) > 0) {
+			knownHead = head;
+		}
+		return head;
+	}
+}
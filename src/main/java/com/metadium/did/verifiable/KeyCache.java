@@ -0,0 +1,100 @@
+package com.metadium.did.verifiable;
+
+import java.security.interfaces.ECPublicKey;
+
+import com.metadium.did.util.cache.LruCache;
+
+/**
+ * Compact cache of public key by kid.<br/>
+ * Holds only public key of each kid instead of whole DID document.
+ * Same key instance is returned on every hit, so verifier of kid is reused without comparing keys.
+ *
+ * @see ResolverPublicKeySource
+ */
+public class KeyCache {
+	/** Default maximum number of kid */
+	public static final int DEFAULT_MAXIMUM_SIZE = 100000;
+
+	/** Default expiry after written. 1 hour */
+	public static final long DEFAULT_EXPIRE_AFTER_WRITE = 60 * 60 * 1000L;
+
+	/** public key by kid */
+	private final LruCache<String, ECPublicKey> cache;
+
+	/**
+	 * Create cache
+	 * @param maximumSize maximum number of kid
+	 * @param expireAfterWriteMillis key expires after this time since resolved. 0 or less is not expired
+	 */
+	public KeyCache(int maximumSize, long expireAfterWriteMillis) {
+		cache = new LruCache<>(maximumSize, expireAfterWriteMillis, 0);
+	}
+
+	/**
+	 * Create cache with default settings
+	 * @see #DEFAULT_MAXIMUM_SIZE
+	 * @see #DEFAULT_EXPIRE_AFTER_WRITE
+	 */
+	public KeyCache() {
+		this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_WRITE);
+	}
+
+	/**
+	 * Get public key of kid
+	 * @param kid key id
+	 * @return public key. null if not cached or expired
+	 */
+	public ECPublicKey get(String kid) {
+		return cache.get(kid);
+	}
+
+	/**
+	 * Get public key of kid without counting hit or miss
+	 * @param kid key id
+	 * @return public key. null if not cached or expired
+	 */
+	public ECPublicKey peek(String kid) {
+		return cache.peek(kid);
+	}
+
+	/**
+	 * Put public key of kid
+	 * @param kid key id
+	 * @param publicKey secp256k1 public key
+	 */
+	public void put(String kid, ECPublicKey publicKey) {
+		cache.put(kid, publicKey);
+	}
+
+	/**
+	 * Remove keys of did
+	 * @param did did
+	 */
+	public void invalidate(String did) {
+		String prefix = did+"#";
+		cache.removeIf(kid -> kid.startsWith(prefix));
+	}
+
+	/**
+	 * Remove all keys
+	 */
+	public void invalidateAll() {
+		cache.clear();
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	public long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	public long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	public long getEvictionCount() {
+		return cache.getEvictionCount();
+	}
+}
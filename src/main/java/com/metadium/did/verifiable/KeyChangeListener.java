@@ -0,0 +1,122 @@
+package com.metadium.did.verifiable;
+
+import java.io.Closeable;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.tx.ReadonlyTransactionManager;
+
+import com.metadium.did.contract.IdentityRegistry;
+import com.metadium.did.contract.PublicKeyResolver;
+import com.metadium.did.exception.DidException;
+import com.metadium.did.protocol.MetaDelegator;
+import com.metadium.did.protocol.data.RegistryAddress;
+import com.metadium.did.wapper.ZeroContractGasProvider;
+
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Invalidate cached keys of {@link Verifier} when key of did is changed on chain.<p/>
+ *
+ * Subscribes PublicKeyRemoved event of all public key resolvers and AssociatedAddressRemoved event of IdentityRegistry,
+ * and evicts only did of event's EIN. With this listener, key cache can have long expiry.
+ * <pre>
+ * KeyChangeListener listener = new KeyChangeListener(metaDelegator, verifier);
+ * listener.start();
+ * ...
+ * listener.close();
+ * </pre>
+ */
+public class KeyChangeListener implements Closeable {
+	private final MetaDelegator metaDelegator;
+
+	private final Verifier verifier;
+
+	private volatile Consumer<Throwable> errorHandler;
+
+	private final List<Disposable> subscriptions = new ArrayList<>();
+
+	/**
+	 * Create listener
+	 * @param metaDelegator delegator has node and registry address
+	 * @param verifier verifier to invalidate
+	 */
+	public KeyChangeListener(MetaDelegator metaDelegator, Verifier verifier) {
+		this.metaDelegator = metaDelegator;
+		this.verifier = verifier;
+	}
+
+	/**
+	 * Set handler of subscription error.<br/>
+	 * Events may be missed after error, so all keys of verifier are invalidated before handler is called.
+	 * @param errorHandler handler. null is ignored
+	 */
+	public void setErrorHandler(Consumer<Throwable> errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Start to listen events from latest block
+	 * @throws DidException fail to load registry address
+	 */
+	public void start() throws DidException {
+		start(DefaultBlockParameterName.LATEST);
+	}
+
+	/**
+	 * Start to listen events from block
+	 * @param startBlock block to start
+	 * @throws DidException fail to load registry address
+	 */
+	public synchronized void start(DefaultBlockParameter startBlock) throws DidException {
+		if (!subscriptions.isEmpty()) {
+			throw new IllegalStateException("Already started");
+		}
+
+		RegistryAddress registryAddress = metaDelegator.getAllServiceAddress();
+		if (registryAddress == null) {
+			throw new DidException("Fail to load RegistryAddress");
+		}
+		Web3j web3j = metaDelegator.getWeb3j();
+
+		// removed public key
+		for (String publicKeyAddress : registryAddress.publicKeyAll) {
+			PublicKeyResolver publicKeyResolver = PublicKeyResolver.load(publicKeyAddress, web3j, new ReadonlyTransactionManager(web3j, null), new ZeroContractGasProvider());
+			subscriptions.add(publicKeyResolver.publicKeyRemovedEventFlowable(startBlock, DefaultBlockParameterName.LATEST)
+					.subscribe(event -> invalidate(event.ein), this::onError));
+		}
+
+		// removed associated address
+		IdentityRegistry identityRegistry = IdentityRegistry.load(registryAddress.identityRegistry, web3j, new ReadonlyTransactionManager(web3j, null), new ZeroContractGasProvider());
+		subscriptions.add(identityRegistry.associatedAddressRemovedEventFlowable(startBlock, DefaultBlockParameterName.LATEST)
+				.subscribe(event -> invalidate(event.ein), this::onError));
+	}
+
+	/**
+	 * Stop to listen events
+	 */
+	@Override
+	public synchronized void close() {
+		for (Disposable subscription : subscriptions) {
+			subscription.dispose();
+		}
+		subscriptions.clear();
+	}
+
+	private void invalidate(BigInteger ein) {
+		verifier.invalidate(metaDelegator.einToDid(ein));
+	}
+
+	private void onError(Throwable e) {
+		verifier.invalidateAll();
+		Consumer<Throwable> errorHandler = this.errorHandler;
+		if (errorHandler != null) {
+			errorHandler.accept(e);
+		}
+	}
+}
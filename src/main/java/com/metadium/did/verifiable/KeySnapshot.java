@@ -0,0 +1,100 @@
+package com.metadium.did.verifiable;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.interfaces.ECPublicKey;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.metadium.did.crypto.ECKeyUtils;
+
+/**
+ * Compact file of public keys by kid for warm start of {@link Verifier}.<p/>
+ * 
+ * Format (big endian)
+ * <pre>
+ * magic(4) "DIDK", version(4), created time millis(8), count(4)
+ * count * { kid length(2), kid utf-8, uncompressed point x||y (64) }
+ * </pre>
+ * File is read with memory mapping.
+ */
+public class KeySnapshot {
+	private static final int MAGIC = 0x4449444b;
+	
+	private static final int VERSION = 1;
+	
+	private static final int POINT_LENGTH = 64;
+	
+	/**
+	 * Write public keys to file. File is replaced atomically.
+	 * @param file snapshot file
+	 * @param keys public key by kid
+	 * @throws IOException write error
+	 */
+	public static void save(File file, Map<String, ECPublicKey> keys) throws IOException {
+		File tmp = new File(file.getAbsoluteFile().getParentFile(), file.getName()+".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(System.currentTimeMillis());
+			out.writeInt(keys.size());
+			for (Map.Entry<String, ECPublicKey> entry : keys.entrySet()) {
+				byte[] kid = entry.getKey().getBytes(StandardCharsets.UTF_8);
+				out.writeShort(kid.length);
+				out.write(kid);
+				out.write(ECKeyUtils.toPoint(entry.getValue()));
+			}
+		}
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+	
+	/**
+	 * Read public keys from file
+	 * @param file snapshot file
+	 * @param maxAgeMillis snapshot older than this is ignored. 0 or less is no limit
+	 * @return public key by kid. empty if snapshot is old. entry of which point is not on secp256k1 is skipped
+	 * @throws IOException read error or invalid format
+	 */
+	public static Map<String, ECPublicKey> load(File file, long maxAgeMillis) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				throw new IOException("Invalid key snapshot "+file);
+			}
+			long createdTime = buffer.getLong();
+			if (maxAgeMillis > 0 && System.currentTimeMillis() - createdTime > maxAgeMillis) {
+				return new HashMap<>();
+			}
+			
+			int count = buffer.getInt();
+			Map<String, ECPublicKey> keys = new HashMap<>(count * 4 / 3 + 1);
+			byte[] point = new byte[POINT_LENGTH];
+			for (int i = 0; i < count; i++) {
+				byte[] kid = new byte[buffer.getShort() & 0xffff];
+				buffer.get(kid);
+				buffer.get(point);
+				try {
+					// decoding validates point is on curve
+					keys.put(new String(kid, StandardCharsets.UTF_8), ECKeyUtils.getPublicKey(point));
+				}
+				catch (IllegalArgumentException e) {
+					// corrupted entry
+				}
+			}
+			return keys;
+		}
+		catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new IOException("Invalid key snapshot "+file, e);
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.metadium.did.verifiable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.metadium.did.exception.DidException;
+import com.metadium.did.exception.DidNotFoundException;
+import com.metadium.did.exception.PublicKeyNotFoundException;
+import com.metadium.did.util.cache.LruCache;
+
+/**
+ * Short lived cache of "not found did" and "not found public key" results.<br/>
+ * {@link Verifier} rejects known unknown did, kid without requesting key source again.
+ */
+public class NegativeCache {
+	/** Default maximum number of did, kid */
+	public static final int DEFAULT_MAXIMUM_SIZE = 100000;
+	
+	/** Default expiry. 30 seconds */
+	public static final long DEFAULT_EXPIRE_AFTER_WRITE = 30 * 1000L;
+	
+	private static final Boolean NOT_FOUND = Boolean.TRUE;
+	
+	/** did or kid. kid has '#' */
+	private final LruCache<String, Boolean> cache;
+	
+	private final AtomicLong rejectedDidCount = new AtomicLong();
+	
+	private final AtomicLong rejectedKidCount = new AtomicLong();
+	
+	/**
+	 * Create cache
+	 * @param maximumSize maximum number of did, kid
+	 * @param expireAfterWriteMillis result expires after this time. must be positive
+	 */
+	public NegativeCache(int maximumSize, long expireAfterWriteMillis) {
+		if (expireAfterWriteMillis <= 0) {
+			throw new IllegalArgumentException("expireAfterWriteMillis must be positive");
+		}
+		cache = new LruCache<>(maximumSize, expireAfterWriteMillis, 0);
+	}
+	
+	/**
+	 * Create cache with default settings
+	 * @see #DEFAULT_MAXIMUM_SIZE
+	 * @see #DEFAULT_EXPIRE_AFTER_WRITE
+	 */
+	public NegativeCache() {
+		this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_WRITE);
+	}
+	
+	/**
+	 * Check did, kid is known not found
+	 * @param did did
+	 * @param kid key id
+	 * @throws DidNotFoundException did is known not found
+	 * @throws PublicKeyNotFoundException kid is known not found
+	 */
+	void check(String did, String kid) throws DidException {
+		if (cache.get(did) != null) {
+			rejectedDidCount.incrementAndGet();
+			throw new DidNotFoundException("Not found did. "+did);
+		}
+		if (cache.get(kid) != null) {
+			rejectedKidCount.incrementAndGet();
+			throw new PublicKeyNotFoundException("Not found public key. "+kid);
+		}
+	}
+	
+	/**
+	 * Record error of key source if it is not found error
+	 * @param did did
+	 * @param kid key id
+	 * @param error error of key source
+	 */
+	void record(String did, String kid, Throwable error) {
+		if (error instanceof DidNotFoundException) {
+			cache.put(did, NOT_FOUND);
+		}
+		else if (error instanceof PublicKeyNotFoundException) {
+			cache.put(kid, NOT_FOUND);
+		}
+	}
+	
+	/**
+	 * Remove results of did and its kid
+	 * @param did did
+	 */
+	public void invalidate(String did) {
+		cache.remove(did);
+		String prefix = did+"#";
+		cache.removeIf(key -> key.startsWith(prefix));
+	}
+	
+	/**
+	 * Remove all results
+	 */
+	public void invalidateAll() {
+		cache.clear();
+	}
+	
+	/**
+	 * Number of cached did, kid
+	 * @return size
+	 */
+	public int size() {
+		return cache.size();
+	}
+	
+	/**
+	 * Number of requests rejected by not found did
+	 * @return count
+	 */
+	public long getRejectedDidCount() {
+		return rejectedDidCount.get();
+	}
+	
+	/**
+	 * Number of requests rejected by not found kid
+	 * @return count
+	 */
+	public long getRejectedKidCount() {
+		return rejectedKidCount.get();
+	}
+	
+	public long getEvictionCount() {
+		return cache.getEvictionCount();
+	}
+}
@@ -0,0 +1,307 @@
+package com.metadium.did.verifiable;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.interfaces.ECPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.DynamicBytes;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.utils.Numeric;
+
+import com.metadium.did.contract.IdentityRegistry;
+import com.metadium.did.contract.PublicKeyResolver;
+import com.metadium.did.crypto.ECKeyUtils;
+import com.metadium.did.exception.DidException;
+import com.metadium.did.exception.DidNotFoundException;
+import com.metadium.did.exception.PublicKeyNotFoundException;
+import com.metadium.did.protocol.MetaDelegator;
+import com.metadium.did.protocol.data.RegistryAddress;
+import com.metadium.did.util.cache.LruCache;
+
+/**
+ * Public key source reading IdentityRegistry and PublicKeyResolver of Metadium node directly.<br/>
+ * Identity and public keys of all associated addresses are read with two JSON-RPC batch requests of eth_call and cached by did.
+ * If kid is not in cached keys, keys of did are read again before failing, so newly added key is found before cache expires.
+ *
+ * @see MetaDelegator#getPublicKey(String, BigInteger)
+ */
+public class OnChainPublicKeySource implements PublicKeySource {
+	/** Default maximum number of did */
+	public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+	/** Default expiry after read. 10 minutes */
+	public static final long DEFAULT_EXPIRE_AFTER_WRITE = 10 * 60 * 1000L;
+
+	private final MetaDelegator metaDelegator;
+
+	/** public key by address of did */
+	private final LruCache<String, Map<String, ECPublicKey>> cache;
+
+	private final SingleFlight<Map<String, ECPublicKey>> inFlight = new SingleFlight<>();
+
+	/**
+	 * Create source
+	 * @param metaDelegator delegator has node and registry address
+	 * @param maximumSize maximum number of cached did
+	 * @param expireAfterWriteMillis keys of did expire after this time since read. 0 or less is not expired
+	 */
+	public OnChainPublicKeySource(MetaDelegator metaDelegator, int maximumSize, long expireAfterWriteMillis) {
+		this.metaDelegator = metaDelegator;
+		this.cache = new LruCache<>(maximumSize, expireAfterWriteMillis, 0);
+	}
+
+	/**
+	 * Create source with default settings
+	 * @param metaDelegator delegator has node and registry address
+	 * @see #DEFAULT_MAXIMUM_SIZE
+	 * @see #DEFAULT_EXPIRE_AFTER_WRITE
+	 */
+	public OnChainPublicKeySource(MetaDelegator metaDelegator) {
+		this(metaDelegator, DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER_WRITE);
+	}
+
+	@Override
+	public ECPublicKey getPublicKey(String did, String kid) throws IOException, DidException {
+		Map<String, ECPublicKey> keys = cache.get(did);
+		if (keys == null || !keys.containsKey(addressOf(kid))) {
+			// not cached, or key may be added after keys are cached
+			SingleFlight.Loader<Map<String, ECPublicKey>> loader = keys == null ? this::loadPublicKeys : this::reloadPublicKeys;
+			keys = inFlight.load(did, loader);
+		}
+		return findPublicKey(keys, kid);
+	}
+
+	@Override
+	public CompletableFuture<ECPublicKey> getPublicKeyAsync(String did, String kid, Executor executor) {
+		Map<String, ECPublicKey> keys = cache.get(did);
+		if (keys != null && keys.containsKey(addressOf(kid))) {
+			return CompletableFuture.completedFuture(keys.get(addressOf(kid)));
+		}
+		// not cached, or key may be added after keys are cached
+		SingleFlight.Loader<Map<String, ECPublicKey>> loader = keys == null ? this::loadPublicKeys : this::reloadPublicKeys;
+		return inFlight.loadAsync(did, loader, executor).thenApply(loaded -> {
+			try {
+				return findPublicKey(loaded, kid);
+			}
+			catch (DidException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+
+	@Override
+	public Map<String, ECPublicKey> preload(String did) throws IOException, DidException {
+		Map<String, ECPublicKey> keys = cache.get(did);
+		if (keys == null) {
+			keys = inFlight.load(did, this::loadPublicKeys);
+		}
+		Map<String, ECPublicKey> keyOfKid = new HashMap<>();
+		for (Map.Entry<String, ECPublicKey> entry : keys.entrySet()) {
+			keyOfKid.put(did+"#MetaManagementKey#"+entry.getKey(), entry.getValue());
+		}
+		return keyOfKid;
+	}
+
+	@Override
+	public void invalidate(String did) {
+		cache.remove(did);
+	}
+
+	@Override
+	public void invalidateAll() {
+		cache.clear();
+	}
+
+	/**
+	 * Find public key of kid. kid is did#MetaManagementKey#address
+	 * @param keys public key by address
+	 * @param kid key id
+	 * @return public key
+	 * @throws PublicKeyNotFoundException Not found public key
+	 */
+	static ECPublicKey findPublicKey(Map<String, ECPublicKey> keys, String kid) throws DidException {
+		ECPublicKey publicKey = keys.get(addressOf(kid));
+		if (publicKey == null) {
+			// Not found public key
+			throw new PublicKeyNotFoundException("Not found public key. "+kid);
+		}
+		return publicKey;
+	}
+
+	/**
+	 * Get address of kid
+	 * @param kid key id
+	 * @return lower case hex address without prefix
+	 */
+	private static String addressOf(String kid) {
+		return Numeric.cleanHexPrefix(kid.substring(kid.lastIndexOf('#') + 1)).toLowerCase();
+	}
+
+	private Map<String, ECPublicKey> loadPublicKeys(String did) throws IOException, DidException {
+		Map<String, ECPublicKey> keys = cache.get(did);
+		if (keys == null) {
+			keys = readPublicKeys(metaDelegator, did, DefaultBlockParameterName.LATEST);
+			cache.put(did, keys);
+		}
+		return keys;
+	}
+
+	/**
+	 * Read keys of did again ignoring cache. Used when kid is not in cached keys
+	 */
+	private Map<String, ECPublicKey> reloadPublicKeys(String did) throws IOException, DidException {
+		Map<String, ECPublicKey> keys = readPublicKeys(metaDelegator, did, DefaultBlockParameterName.LATEST);
+		cache.put(did, keys);
+		return keys;
+	}
+
+	/**
+	 * Read public keys of all associated addresses of did at block
+	 *
+	 * @param metaDelegator delegator has node and registry address
+	 * @param did did
+	 * @param block block to read
+	 * @return public key by address. address is lower case hex without prefix
+	 * @throws IOException node network error
+	 * @throws DidException Not found did or public key resolver
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static Map<String, ECPublicKey> readPublicKeys(MetaDelegator metaDelegator, String did, DefaultBlockParameter block) throws IOException, DidException {
+		if (did == null || !did.matches(".*[0-9a-fA-F]{64}$")) {
+			throw new DidException("Did invalid");
+		}
+		BigInteger ein = Numeric.toBigInt(did.substring(did.length()-64));
+
+		RegistryAddress registryAddress = metaDelegator.getAllServiceAddress();
+		Web3j web3j = metaDelegator.getWeb3j();
+
+		// identity
+		Function existsFunction = new Function(IdentityRegistry.FUNC_IDENTITYEXISTS,
+				Arrays.<Type>asList(new Uint256(ein)),
+				Arrays.<TypeReference<?>>asList(new TypeReference<Bool>() {}));
+		Function identityFunction = new Function(IdentityRegistry.FUNC_GETIDENTITY,
+				Arrays.<Type>asList(new Uint256(ein)),
+				Arrays.<TypeReference<?>>asList(new TypeReference<Address>() {}, new TypeReference<DynamicArray<Address>>() {}, new TypeReference<DynamicArray<Address>>() {}, new TypeReference<DynamicArray<Address>>() {}));
+		List<EthCall> identityCalls = ethCallBatch(web3j, block, registryAddress.identityRegistry, existsFunction, identityFunction);
+
+		List<Type> exists = FunctionReturnDecoder.decode(getValue(identityCalls.get(0)), existsFunction.getOutputParameters());
+		if (exists.isEmpty() || !((Bool)exists.get(0)).getValue()) {
+			// not found did
+			throw new DidNotFoundException("Not found did. "+did);
+		}
+		List<Type> identity = FunctionReturnDecoder.decode(getValue(identityCalls.get(1)), identityFunction.getOutputParameters());
+		List<Address> associatedAddresses = ((DynamicArray<Address>)identity.get(1)).getValue();
+		List<Address> resolvers = ((DynamicArray<Address>)identity.get(3)).getValue();
+
+		// find public key resolver address
+		String resolverAddress = null;
+		for (String publicKeyAddress : registryAddress.publicKeyAll) {
+			for (Address resolver : resolvers) {
+				if (publicKeyAddress.equalsIgnoreCase(resolver.toString())) {
+					resolverAddress = publicKeyAddress;
+					break;
+				}
+			}
+			if (resolverAddress != null) {
+				break;
+			}
+		}
+		if (resolverAddress == null) {
+			throw new DidException("Not found public key resolver. "+did);
+		}
+
+		// public keys of associated addresses
+		Function[] keyFunctions = new Function[associatedAddresses.size()];
+		for (int i = 0; i < keyFunctions.length; i++) {
+			keyFunctions[i] = new Function(PublicKeyResolver.FUNC_GETPUBLICKEY,
+					Arrays.<Type>asList(associatedAddresses.get(i)),
+					Arrays.<TypeReference<?>>asList(new TypeReference<DynamicBytes>() {}));
+		}
+		List<EthCall> keyCalls = ethCallBatch(web3j, block, resolverAddress, keyFunctions);
+
+		Map<String, ECPublicKey> keys = new HashMap<>();
+		for (int i = 0; i < keyFunctions.length; i++) {
+			List<Type> decoded = FunctionReturnDecoder.decode(getValue(keyCalls.get(i)), keyFunctions[i].getOutputParameters());
+			if (decoded.isEmpty()) {
+				continue;
+			}
+			byte[] publicKey = ((DynamicBytes)decoded.get(0)).getValue();
+			if (publicKey == null || publicKey.length != 64) {
+				// removed key
+				continue;
+			}
+			String address = Numeric.cleanHexPrefix(associatedAddresses.get(i).toString()).toLowerCase();
+			keys.put(address, ECKeyUtils.getPublicKey("04"+Numeric.toHexStringNoPrefix(publicKey)));
+		}
+		return Collections.unmodifiableMap(keys);
+	}
+
+	/**
+	 * Send eth_call of functions to contract with one batch request
+	 * @param web3j web3
+	 * @param block block to call
+	 * @param to contract address
+	 * @param functions functions to call
+	 * @return response of each function in order
+	 * @throws IOException node network error
+	 */
+	private static List<EthCall> ethCallBatch(Web3j web3j, DefaultBlockParameter block, String to, Function... functions) throws IOException {
+		if (functions.length == 0) {
+			return Collections.emptyList();
+		}
+
+		BatchRequest batch = web3j.newBatch();
+		for (Function function : functions) {
+			batch.add(web3j.ethCall(Transaction.createEthCallTransaction(null, to, FunctionEncoder.encode(function)), block));
+		}
+		BatchResponse batchResponse = batch.send();
+
+		// match response with request by id
+		Map<Long, EthCall> responseOfId = new HashMap<>();
+		for (Response<?> response : batchResponse.getResponses()) {
+			responseOfId.put(response.getId(), (EthCall)response);
+		}
+		List<EthCall> results = new ArrayList<>(functions.length);
+		for (Request<?, ? extends Response<?>> request : batch.getRequests()) {
+			EthCall response = responseOfId.get(request.getId());
+			if (response == null) {
+				throw new IOException("No response of eth_call. id="+request.getId());
+			}
+			results.add(response);
+		}
+		return results;
+	}
+
+	private static String getValue(EthCall ethCall) throws IOException {
+		if (ethCall.hasError()) {
+			throw new IOException("eth_call error. "+ethCall.getError().getMessage());
+		}
+		return ethCall.getValue();
+	}
+}
@@ -0,0 +1,58 @@
+package com.metadium.did.verifiable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of verifying presentation and credentials in presentation
+ * 
+ * @see Verifier#verifyPresentation(com.nimbusds.jwt.SignedJWT)
+ */
+public class PresentationVerifyResult {
+	private final VerifyResult presentationResult;
+	
+	private final List<VerifyResult> credentialResults;
+	
+	PresentationVerifyResult(VerifyResult presentationResult, List<VerifyResult> credentialResults) {
+		this.presentationResult = presentationResult;
+		this.credentialResults = Collections.unmodifiableList(credentialResults);
+	}
+	
+	/**
+	 * Get result of presentation signature
+	 * @return result of vp
+	 */
+	public VerifyResult getPresentationResult() {
+		return presentationResult;
+	}
+	
+	/**
+	 * Get results of credentials in order of presentation.<br/>
+	 * Credential which is not JWT has result with null {@link VerifyResult#getSignedJWT()} and parse error.
+	 * @return result of each vc
+	 */
+	public List<VerifyResult> getCredentialResults() {
+		return credentialResults;
+	}
+	
+	/**
+	 * Presentation and all credentials are verified
+	 * @return true if all verified
+	 */
+	public boolean isVerified() {
+		if (!presentationResult.isVerified()) {
+			return false;
+		}
+		for (VerifyResult result : credentialResults) {
+			if (!result.isVerified()) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	@Override
+	public String toString() {
+		return "PresentationVerifyResult{presentation="+presentationResult+", credentials="+credentialResults+"}";
+	}
+}
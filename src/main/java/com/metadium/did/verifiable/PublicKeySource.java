@@ -0,0 +1,81 @@
+package com.metadium.did.verifiable;
+
+import java.io.IOException;
+import java.security.interfaces.ECPublicKey;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import com.metadium.did.exception.DidException;
+
+/**
+ * Source of public key of did used by {@link Verifier}.<p/>
+ * 
+ * Implementation must be thread-safe and may cache keys.
+ * 
+ * @see ResolverPublicKeySource
+ * @see OnChainPublicKeySource
+ */
+public interface PublicKeySource {
+	/**
+	 * Get public key of kid
+	 * @param did did of kid
+	 * @param kid key id. did#MetaManagementKey#address
+	 * @return public key
+	 * @throws IOException network error
+	 * @throws com.metadium.did.exception.DidNotFoundException Not found did
+	 * @throws com.metadium.did.exception.PublicKeyNotFoundException Not found public key of kid
+	 * @throws DidException invalid did
+	 */
+	ECPublicKey getPublicKey(String did, String kid) throws IOException, DidException;
+	
+	/**
+	 * Get public key of kid asynchronously.<br/>
+	 * Default implementation calls {@link #getPublicKey(String, String)} on executor.
+	 * Implementation should return completed future if key is cached.
+	 * 
+	 * @param did did of kid
+	 * @param kid key id
+	 * @param executor executor to run blocking request
+	 * @return future of public key
+	 */
+	default CompletableFuture<ECPublicKey> getPublicKeyAsync(String did, String kid, Executor executor) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return getPublicKey(did, kid);
+			}
+			catch (IOException | DidException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+	
+	/**
+	 * Load all public keys of did and keep them in cache. Used to warm up before first verification.<br/>
+	 * Default implementation loads nothing.
+	 * 
+	 * @param did did
+	 * @return public key by kid. empty if not supported
+	 * @throws IOException network error
+	 * @throws com.metadium.did.exception.DidNotFoundException Not found did
+	 * @throws DidException invalid did
+	 */
+	default Map<String, ECPublicKey> preload(String did) throws IOException, DidException {
+		return Collections.emptyMap();
+	}
+	
+	/**
+	 * Remove cached keys of did
+	 * @param did did
+	 */
+	default void invalidate(String did) {
+	}
+	
+	/**
+	 * Remove all cached keys
+	 */
+	default void invalidateAll() {
+	}
+}
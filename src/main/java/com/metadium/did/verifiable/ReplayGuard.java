@@ -0,0 +1,220 @@
+package com.metadium.did.verifiable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Sliding window of seen nonce of presentations for replay protection.<p/>
+ *
+ * Window is divided into time buckets. Each bucket is a hash set of 64-bit fingerprints of (holder did, nonce)
+ * and the oldest bucket is dropped when window slides, so memory is bounded by nonces received in window.
+ * Presentation must have issue time in [now - window, now + clock skew]. Others can not be checked, so they are rejected.
+ * Nonces are remembered for window + clock skew, so presentation issued in future by skew is also covered.
+ *
+ * @see Verifier#setReplayGuard(ReplayGuard)
+ */
+public class ReplayGuard {
+	/** Default window. 10 minutes */
+	public static final long DEFAULT_WINDOW = 10 * 60 * 1000L;
+
+	/** Default number of buckets in window */
+	public static final int DEFAULT_BUCKET_COUNT = 10;
+
+	/** Default allowed clock skew of issue time. 1 minute */
+	public static final long DEFAULT_CLOCK_SKEW = 60 * 1000L;
+
+	private final long windowMillis;
+
+	private final long clockSkewMillis;
+
+	private final long bucketMillis;
+
+	/** bucket of time. index is epoch of bucket mod length */
+	private final Bucket[] buckets;
+
+	/**
+	 * Create guard
+	 * @param windowMillis window length. presentation issued before window is rejected
+	 * @param bucketCount number of buckets in window
+	 * @param clockSkewMillis allowed clock skew. presentation issued after now + skew is rejected
+	 */
+	public ReplayGuard(long windowMillis, int bucketCount, long clockSkewMillis) {
+		if (windowMillis <= 0 || bucketCount <= 0 || clockSkewMillis < 0) {
+			throw new IllegalArgumentException("windowMillis and bucketCount must be positive, clockSkewMillis must not be negative");
+		}
+		this.windowMillis = windowMillis;
+		this.clockSkewMillis = clockSkewMillis;
+		this.bucketMillis = Math.max(1, windowMillis / bucketCount);
+		// buckets to keep window + skew, and one more to keep it while current bucket is filling
+		long retention = windowMillis + clockSkewMillis;
+		this.buckets = new Bucket[(int)((retention + bucketMillis - 1) / bucketMillis) + 1];
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new Bucket();
+		}
+	}
+
+	/**
+	 * Create guard with default clock skew
+	 * @see #DEFAULT_CLOCK_SKEW
+	 * @param windowMillis window length. presentation issued before window is rejected
+	 * @param bucketCount number of buckets in window
+	 */
+	public ReplayGuard(long windowMillis, int bucketCount) {
+		this(windowMillis, bucketCount, DEFAULT_CLOCK_SKEW);
+	}
+
+	/**
+	 * Create guard with default settings
+	 * @see #DEFAULT_WINDOW
+	 * @see #DEFAULT_BUCKET_COUNT
+	 * @see #DEFAULT_CLOCK_SKEW
+	 */
+	public ReplayGuard() {
+		this(DEFAULT_WINDOW, DEFAULT_BUCKET_COUNT, DEFAULT_CLOCK_SKEW);
+	}
+
+	public long getWindowMillis() {
+		return windowMillis;
+	}
+
+	public long getClockSkewMillis() {
+		return clockSkewMillis;
+	}
+
+	/**
+	 * Check issue time of presentation is in [now - window, now + clock skew]
+	 * @param issuedAt issue time. epoch milliseconds
+	 * @param now current time. epoch milliseconds
+	 * @return true if nonce of presentation can be checked
+	 */
+	public boolean isInWindow(long issuedAt, long now) {
+		return issuedAt >= now - windowMillis && issuedAt <= now + clockSkewMillis;
+	}
+
+	/**
+	 * Check nonce of holder is not seen in window and record it
+	 * @param holderDid did of presentation signer
+	 * @param nonce nonce of presentation
+	 * @return true if first seen. false if replayed
+	 */
+	public boolean checkAndRecord(String holderDid, String nonce) {
+		return checkAndRecord(fingerprint(holderDid, nonce), System.currentTimeMillis());
+	}
+
+	synchronized boolean checkAndRecord(long fingerprint, long now) {
+		long epoch = now / bucketMillis;
+		for (Bucket bucket : buckets) {
+			if (bucket.epoch > epoch - buckets.length && bucket.contains(fingerprint)) {
+				return false;
+			}
+		}
+
+		Bucket current = buckets[(int)(epoch % buckets.length)];
+		if (current.epoch != epoch) {
+			// slide window. drop oldest bucket
+			current.reset(epoch);
+		}
+		current.add(fingerprint);
+		return true;
+	}
+
+	/**
+	 * Number of remembered nonces
+	 * @return size
+	 */
+	public synchronized int size() {
+		long epoch = System.currentTimeMillis() / bucketMillis;
+		int size = 0;
+		for (Bucket bucket : buckets) {
+			if (bucket.epoch > epoch - buckets.length) {
+				size += bucket.size;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * 64-bit fingerprint of (holder did, nonce). first 8 bytes of SHA-256
+	 */
+	static long fingerprint(String holderDid, String nonce) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest((holderDid+"|"+nonce).getBytes(StandardCharsets.UTF_8));
+			long fingerprint = 0;
+			for (int i = 0; i < 8; i++) {
+				fingerprint = (fingerprint << 8) | (digest[i] & 0xff);
+			}
+			return fingerprint;
+		}
+		catch (NoSuchAlgorithmException e) {
+			// SHA-256 is always supported
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Open addressing hash set of long. 0 is used as empty slot
+	 */
+	private static class Bucket {
+		private static final int INITIAL_CAPACITY = 64;
+
+		long epoch = Long.MIN_VALUE;
+		long[] slots = new long[INITIAL_CAPACITY];
+		int size;
+
+		void reset(long epoch) {
+			this.epoch = epoch;
+			if (slots.length > INITIAL_CAPACITY) {
+				slots = new long[INITIAL_CAPACITY];
+			}
+			else {
+				Arrays.fill(slots, 0);
+			}
+			size = 0;
+		}
+
+		boolean contains(long fingerprint) {
+			long value = fingerprint == 0 ? 1 : fingerprint;
+			int mask = slots.length - 1;
+			for (int i = mix(value) & mask; slots[i] != 0; i = (i + 1) & mask) {
+				if (slots[i] == value) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void add(long fingerprint) {
+			if ((size + 1) * 2 > slots.length) {
+				grow();
+			}
+			long value = fingerprint == 0 ? 1 : fingerprint;
+			int mask = slots.length - 1;
+			int i = mix(value) & mask;
+			while (slots[i] != 0) {
+				if (slots[i] == value) {
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			slots[i] = value;
+			size++;
+		}
+
+		private void grow() {
+			long[] old = slots;
+			slots = new long[old.length * 2];
+			size = 0;
+			for (long value : old) {
+				if (value != 0) {
+					add(value);
+				}
+			}
+		}
+
+		private static int mix(long value) {
+			return (int)(value ^ (value >>> 32));
+		}
+	}
+}
@@ -0,0 +1,186 @@
+package com.metadium.did.verifiable;
+
+import java.io.IOException;
+import java.security.interfaces.ECPublicKey;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import com.metadium.did.exception.DidException;
+import com.metadium.did.exception.DidNotFoundException;
+import com.metadium.did.exception.PublicKeyNotFoundException;
+import com.metaidum.did.resolver.client.DIDResolverAPI;
+import com.metaidum.did.resolver.client.DIDResolverResponse;
+import com.metaidum.did.resolver.client.document.DidDocument;
+import com.metaidum.did.resolver.client.document.PublicKey;
+
+/**
+ * Public key source with DID resolver.<br/>
+ * Public keys extracted from resolved documents are kept in compact {@link KeyCache} and concurrent resolution of same did is coalesced.
+ * Whole documents are kept only if {@link DidDocumentCache} is given.
+ */
+public class ResolverPublicKeySource implements PublicKeySource {
+	private final KeyCache keyCache;
+
+	/** null if documents are not cached */
+	private final DidDocumentCache docCache;
+
+	/** resolving documents. each did has at most one outstanding resolution */
+	private final SingleFlight<DidDocument> inFlight = new SingleFlight<>();
+
+	/**
+	 * Create source with {@link KeyCache}
+	 */
+	public ResolverPublicKeySource() {
+		this(new KeyCache());
+	}
+
+	/**
+	 * Create source
+	 * @param keyCache cache of public key
+	 */
+	public ResolverPublicKeySource(KeyCache keyCache) {
+		this.keyCache = keyCache;
+		this.docCache = null;
+	}
+
+	/**
+	 * Create source which also keeps resolved documents
+	 * @param docCache cache of resolved DID document
+	 */
+	public ResolverPublicKeySource(DidDocumentCache docCache) {
+		this.keyCache = new KeyCache();
+		this.docCache = docCache;
+	}
+
+	/**
+	 * Get cache of public key
+	 * @return cache
+	 */
+	public KeyCache getKeyCache() {
+		return keyCache;
+	}
+
+	/**
+	 * Get cache of DID document
+	 * @return cache. null if documents are not cached
+	 */
+	public DidDocumentCache getDocumentCache() {
+		return docCache;
+	}
+
+	@Override
+	public ECPublicKey getPublicKey(String did, String kid) throws IOException, DidException {
+		ECPublicKey publicKey = keyCache.get(kid);
+		if (publicKey != null) {
+			return publicKey;
+		}
+		return extractPublicKey(kid, inFlight.load(did, this::loadDocument));
+	}
+
+	@Override
+	public CompletableFuture<ECPublicKey> getPublicKeyAsync(String did, String kid, Executor executor) {
+		ECPublicKey publicKey = keyCache.get(kid);
+		if (publicKey != null) {
+			return CompletableFuture.completedFuture(publicKey);
+		}
+		return inFlight.loadAsync(did, this::loadDocument, executor).thenApply(resolved -> {
+			try {
+				return extractPublicKey(kid, resolved);
+			}
+			catch (DidException e) {
+				throw new CompletionException(e);
+			}
+		});
+	}
+
+	@Override
+	public Map<String, ECPublicKey> preload(String did) throws IOException, DidException {
+		DidDocument doc = inFlight.load(did, this::loadDocument);
+		Map<String, ECPublicKey> keys = new HashMap<>();
+		List<PublicKey> publicKeys = doc.getPublicKey();
+		if (publicKeys != null) {
+			for (PublicKey publicKey : publicKeys) {
+				// service keys have only hash of key
+				if (publicKey.getId() != null && publicKey.getPublicKey() instanceof ECPublicKey) {
+					keyCache.put(publicKey.getId(), (ECPublicKey)publicKey.getPublicKey());
+					keys.put(publicKey.getId(), (ECPublicKey)publicKey.getPublicKey());
+				}
+			}
+		}
+		return keys;
+	}
+
+	@Override
+	public void invalidate(String did) {
+		keyCache.invalidate(did);
+		if (docCache != null) {
+			docCache.invalidate(did);
+		}
+	}
+
+	@Override
+	public void invalidateAll() {
+		keyCache.invalidateAll();
+		if (docCache != null) {
+			docCache.invalidateAll();
+		}
+	}
+
+	/**
+	 * Extract public key of kid from document and put to key cache
+	 *
+	 * @param kid key id
+	 * @param doc DID document of kid
+	 * @return public key
+	 * @throws PublicKeyNotFoundException Not found public key
+	 */
+	private ECPublicKey extractPublicKey(String kid, DidDocument doc) throws DidException {
+		PublicKey publicKeyOfIssuer = doc.getPublicKey(kid);
+		if (publicKeyOfIssuer == null || !(publicKeyOfIssuer.getPublicKey() instanceof ECPublicKey)) {
+			// Not found public key. service key has only hash of key
+			throw new PublicKeyNotFoundException("Not found public key. "+kid);
+		}
+		ECPublicKey publicKey = (ECPublicKey)publicKeyOfIssuer.getPublicKey();
+		keyCache.put(kid, publicKey);
+		return publicKey;
+	}
+
+	/**
+	 * Load document from document cache or resolver
+	 * @param did did
+	 * @return DID document
+	 * @throws IOException resolver network error
+	 * @throws DidNotFoundException Not found did
+	 */
+	private DidDocument loadDocument(String did) throws IOException, DidException {
+		if (docCache == null) {
+			return resolveDocument(did);
+		}
+		DidDocument doc = docCache.get(did);
+		if (doc == null) {
+			doc = resolveDocument(did);
+			docCache.put(did, doc);
+		}
+		return doc;
+	}
+
+	/**
+	 * Request DID document to resolver
+	 * @param did did
+	 * @return DID document
+	 * @throws IOException resolver network error
+	 * @throws DidNotFoundException Not found did
+	 */
+	private DidDocument resolveDocument(String did) throws IOException, DidException {
+		DIDResolverResponse response = DIDResolverAPI.getInstance().requestDocument(did, true);
+		if (response == null || response.getDidDocument() == null) {
+			// not found did
+			throw new DidNotFoundException("Not found did. "+did);
+		}
+		return response.getDidDocument();
+	}
+}
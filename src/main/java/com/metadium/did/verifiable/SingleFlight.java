@@ -0,0 +1,134 @@
+package com.metadium.did.verifiable;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.metadium.did.exception.DidException;
+
+/**
+ * Coalesce concurrent loading of same key.<br/>
+ * Each key has at most one outstanding load. Other callers share its result or failure.
+ *
+ * @param <V> loaded value type
+ */
+class SingleFlight<V> {
+	/**
+	 * Loader of value
+	 */
+	interface Loader<V> {
+		V load(String key) throws IOException, DidException;
+	}
+	
+	private final ConcurrentMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	
+	/**
+	 * Load value. If not loading, load on caller thread else wait for it.
+	 * @param key key
+	 * @param loader loader
+	 * @return loaded value
+	 * @throws IOException network error
+	 * @throws DidException load error
+	 */
+	V load(String key, Loader<V> loader) throws IOException, DidException {
+		CompletableFuture<V> future = new CompletableFuture<>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+		if (running == null) {
+			// this thread loads
+			run(key, loader, future);
+			running = future;
+		}
+		return await(running, key);
+	}
+	
+	/**
+	 * Load value asynchronously. If not loading, load on executor else share it.
+	 * @param key key
+	 * @param loader loader
+	 * @param executor executor to run loader
+	 * @return future of value
+	 */
+	CompletableFuture<V> loadAsync(String key, Loader<V> loader, Executor executor) {
+		CompletableFuture<V> future = new CompletableFuture<>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, future);
+		if (running != null) {
+			return running;
+		}
+		try {
+			executor.execute(() -> run(key, loader, future));
+		}
+		catch (RejectedExecutionException e) {
+			inFlight.remove(key, future);
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+	
+	private void run(String key, Loader<V> loader, CompletableFuture<V> future) {
+		try {
+			future.complete(loader.load(key));
+		}
+		catch (Throwable e) {
+			// waiters must not hang on Error
+			future.completeExceptionally(e);
+			if (e instanceof Error) {
+				throw (Error)e;
+			}
+		}
+		finally {
+			inFlight.remove(key, future);
+		}
+	}
+	
+	/**
+	 * Wait future and throw its failure
+	 * @param future future
+	 * @param key key of future
+	 * @return value
+	 * @throws IOException network error or interrupted
+	 * @throws DidException load error
+	 */
+	static <T> T await(CompletableFuture<T> future, String key) throws IOException, DidException {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while loading "+key, e);
+		}
+		catch (ExecutionException e) {
+			Exception cause = unwrap(e);
+			if (cause instanceof IOException) {
+				throw (IOException)cause;
+			}
+			if (cause instanceof DidException) {
+				throw (DidException)cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			}
+			throw new DidException(cause);
+		}
+	}
+	
+	/**
+	 * Unwrap exception of {@link CompletableFuture}
+	 */
+	static Exception unwrap(Throwable e) {
+		while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+			e = e.getCause();
+		}
+		return e instanceof Exception ? (Exception)e : new DidException(e);
+	}
+	
+	static <T> CompletableFuture<T> failedFuture(Throwable e) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		future.completeExceptionally(e);
+		return future;
+	}
+}
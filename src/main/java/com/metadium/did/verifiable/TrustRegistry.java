@@ -0,0 +1,157 @@
+package com.metadium.did.verifiable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Trusted issuer dids used by {@link Verifier} to reject credentials of unknown issuer before resolving.<p/>
+ *
+ * Lookup checks compact Bloom filter first, so most unknown dids are rejected without exact set lookup.
+ * Filter and exact set are replaced together by {@link #reload(File)} or {@link #update(Collection)}
+ * with one volatile write, so verifying threads are never blocked and always see a consistent list.
+ * <pre>
+ * TrustRegistry registry = TrustRegistry.load(new File("trusted-issuers.txt"));
+ * verifier.setTrustRegistry(registry);
+ * ...
+ * registry.reload(new File("trusted-issuers.txt"));
+ * </pre>
+ */
+public class TrustRegistry {
+	/** False positive rate of filter */
+	private static final double FALSE_POSITIVE_RATE = 0.01;
+
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Create registry
+	 * @param dids trusted dids
+	 */
+	public TrustRegistry(Collection<String> dids) {
+		this.snapshot = new Snapshot(dids);
+	}
+
+	/**
+	 * Create registry from file
+	 * @see #reload(File)
+	 * @param file list of did
+	 * @return registry
+	 * @throws IOException read error
+	 */
+	public static TrustRegistry load(File file) throws IOException {
+		return new TrustRegistry(read(file));
+	}
+
+	/**
+	 * Replace trusted dids with file.<br/>
+	 * File is UTF-8 text of one did per line. Empty lines and lines starting with '#' are ignored.
+	 * @param file list of did
+	 * @throws IOException read error. current list is kept
+	 */
+	public void reload(File file) throws IOException {
+		update(read(file));
+	}
+
+	/**
+	 * Replace trusted dids
+	 * @param dids trusted dids
+	 */
+	public void update(Collection<String> dids) {
+		this.snapshot = new Snapshot(dids);
+	}
+
+	/**
+	 * Check did is trusted
+	 * @param did did
+	 * @return true if trusted
+	 */
+	public boolean isTrusted(String did) {
+		Snapshot snapshot = this.snapshot;
+		return snapshot.mightContain(did) && snapshot.dids.contains(did);
+	}
+
+	/**
+	 * Number of trusted dids
+	 * @return size
+	 */
+	public int size() {
+		return snapshot.dids.size();
+	}
+
+	private static Set<String> read(File file) throws IOException {
+		Set<String> dids = new HashSet<>();
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (!line.isEmpty() && !line.startsWith("#")) {
+					dids.add(line);
+				}
+			}
+		}
+		return dids;
+	}
+
+	/**
+	 * Immutable Bloom filter and exact set of dids
+	 */
+	private static class Snapshot {
+		final Set<String> dids;
+		final long[] bits;
+		final int bitCount;
+		final int hashCount;
+
+		Snapshot(Collection<String> dids) {
+			this.dids = Collections.unmodifiableSet(new HashSet<>(dids));
+
+			int n = Math.max(1, this.dids.size());
+			long m = (long)Math.ceil(-n * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+			this.bitCount = (int)Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+			this.hashCount = Math.max(1, (int)Math.round((double)bitCount / n * Math.log(2)));
+			this.bits = new long[(bitCount + 63) >>> 6];
+			for (String did : this.dids) {
+				long hash = hash(did);
+				int h1 = (int)hash;
+				int h2 = (int)(hash >>> 32);
+				for (int i = 0; i < hashCount; i++) {
+					int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+					bits[index >>> 6] |= 1L << index;
+				}
+			}
+		}
+
+		boolean mightContain(String did) {
+			long hash = hash(did);
+			int h1 = (int)hash;
+			int h2 = (int)(hash >>> 32);
+			for (int i = 0; i < hashCount; i++) {
+				int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+				if ((bits[index >>> 6] & (1L << index)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * 64-bit FNV-1a of chars with final mix
+		 */
+		private static long hash(String value) {
+			long hash = 0xcbf29ce484222325L;
+			for (int i = 0; i < value.length(); i++) {
+				hash ^= value.charAt(i);
+				hash *= 0x100000001b3L;
+			}
+			hash ^= hash >>> 33;
+			hash *= 0xff51afd7ed558ccdL;
+			hash ^= hash >>> 33;
+			return hash;
+		}
+	}
+}
@@ -1,19 +1,43 @@
 package com.metadium.did.verifiable;
 
+import java.io.File;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.security.interfaces.ECPublicKey;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+import com.metadium.did.crypto.PrecomputedECDSAVerifier;
 import com.metadium.did.exception.DidException;
-import com.metaidum.did.resolver.client.DIDResolverAPI;
-import com.metaidum.did.resolver.client.DIDResolverResponse;
-import com.metaidum.did.resolver.client.document.DidDocument;
-import com.metaidum.did.resolver.client.document.PublicKey;
+import com.metadium.did.exception.PolicyViolationException;
+import com.metadium.did.util.cache.LruCache;
+import com.metadium.vc.VerifiablePresentation;
 import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jose.crypto.ECDSAVerifier;
 import com.nimbusds.jose.crypto.bc.BouncyCastleProviderSingleton;
+import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 
 /**
@@ -23,7 +47,390 @@ import com.nimbusds.jwt.SignedJWT;
  *
  */
 public class Verifier {
-	private Map<String, DidDocument> docCache = Collections.synchronizedMap(new HashMap<String, DidDocument>());
+	/** Time to use key loaded from snapshot which can not be revalidated. 10 minutes */
+	public static final long WARM_KEY_EXPIRY = 10 * 60 * 1000L;
+	
+	/** Maximum number of kids revalidated at once after snapshot is loaded */
+	public static final int REVALIDATE_CONCURRENCY = 8;
+	
+	/** Number of threads of default resolve executor. Resolver requests mostly wait on network, so 4 per core */
+	public static final int DEFAULT_RESOLVE_THREADS = Runtime.getRuntime().availableProcessors() * 4;
+	
+	/** Default executor of blocking resolver requests. Shared by verifiers. Requests over {@link #DEFAULT_RESOLVE_THREADS} are queued */
+	private static final ExecutorService DEFAULT_RESOLVE_EXECUTOR = Executors.newFixedThreadPool(DEFAULT_RESOLVE_THREADS, new ThreadFactory() {
+		private final AtomicInteger count = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "did-resolver-"+count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	private final PublicKeySource keySource;
+	
+	/** executor of resolver request for asynchronous verification */
+	private volatile Executor resolveExecutor = DEFAULT_RESOLVE_EXECUTOR;
+	
+	/** not found did, kid. null is disabled */
+	private volatile NegativeCache negativeCache = new NegativeCache();
+	
+	/** cheap checks before resolve. null is not checked */
+	private volatile VerifyPolicy policy;
+	
+	/** trusted issuer dids. null is not checked */
+	private volatile TrustRegistry trustRegistry;
+	
+	/** verified result by token digest. null is disabled */
+	private volatile VerifyResultCache resultCache;
+	
+	/** seen nonce of presentations. null is not checked */
+	private volatile ReplayGuard replayGuard;
+	
+	/** public key of kid loaded from snapshot. used until revalidated by key source or expired */
+	private final ConcurrentMap<String, WarmKey> warmKeys = new ConcurrentHashMap<>();
+	
+	/** source of public key at past block. null if historical verification is not used */
+	private volatile HistoricalPublicKeySource historicalKeySource;
+	
+	/** precomputed verifier of hot kid. null is disabled */
+	private volatile LruCache<String, PrecomputedECDSAVerifier> precomputedCache;
+	
+	/** number of verifications of kid before precomputed */
+	private volatile int precomputeThreshold;
+	
+	/** ready to use verifier of kid. valid while public key of kid is not changed. expires as cached key */
+	private final LruCache<String, KeyVerifier> verifierCache = new LruCache<>(KeyCache.DEFAULT_MAXIMUM_SIZE, KeyCache.DEFAULT_EXPIRE_AFTER_WRITE, 0);
+	
+	/**
+	 * Create verifier with {@link ResolverPublicKeySource} and {@link KeyCache}
+	 */
+	public Verifier() {
+		this(new ResolverPublicKeySource());
+	}
+	
+	/**
+	 * Create verifier with {@link ResolverPublicKeySource} which also keeps resolved documents
+	 * @param docCache cache of resolved DID document
+	 */
+	public Verifier(DidDocumentCache docCache) {
+		this(new ResolverPublicKeySource(docCache));
+	}
+	
+	/**
+	 * Create verifier
+	 * @param keySource source of public key. {@link ResolverPublicKeySource} or {@link OnChainPublicKeySource}
+	 */
+	public Verifier(PublicKeySource keySource) {
+		this.keySource = keySource;
+	}
+	
+	/**
+	 * Get source of public key
+	 * @return key source
+	 */
+	public PublicKeySource getPublicKeySource() {
+		return keySource;
+	}
+	
+	/**
+	 * Get cache of DID document
+	 * @return cache. null if key source is not {@link ResolverPublicKeySource} or documents are not cached
+	 */
+	public DidDocumentCache getDocumentCache() {
+		if (keySource instanceof ResolverPublicKeySource) {
+			return ((ResolverPublicKeySource)keySource).getDocumentCache();
+		}
+		return null;
+	}
+	
+	/**
+	 * Get cache of not found did, kid
+	 * @return negative cache. null if disabled
+	 */
+	public NegativeCache getNegativeCache() {
+		return negativeCache;
+	}
+	
+	/**
+	 * Set cache of not found did, kid. Default is {@link NegativeCache#NegativeCache()}
+	 * @param negativeCache negative cache. null is disabled
+	 */
+	public void setNegativeCache(NegativeCache negativeCache) {
+		this.negativeCache = negativeCache;
+	}
+	
+	/**
+	 * Set executor of resolver request used by {@link #verifyAsync(SignedJWT, Executor)}.
+	 * Resolver request is blocking, so executor should allow blocking tasks.
+	 * @param resolveExecutor executor
+	 */
+	public void setResolveExecutor(Executor resolveExecutor) {
+		this.resolveExecutor = resolveExecutor == null ? DEFAULT_RESOLVE_EXECUTOR : resolveExecutor;
+	}
+	
+	/**
+	 * Set checks run before public key is resolved. Rejected jwt fails with {@link PolicyViolationException}.
+	 * Not applied to {@link #verifyAtBlock(SignedJWT, BigInteger)}.
+	 * @param policy policy. null is not checked
+	 */
+	public void setPolicy(VerifyPolicy policy) {
+		this.policy = policy;
+	}
+	
+	/**
+	 * Get checks run before public key is resolved
+	 * @return policy. null if not set
+	 */
+	public VerifyPolicy getPolicy() {
+		return policy;
+	}
+	
+	/**
+	 * Set trusted issuers. Jwt signed by did not in registry fails with {@link PolicyViolationException} before public key is resolved.<br/>
+	 * Holder of presentation in {@link #verifyPresentation(SignedJWT, Executor)} is not checked.
+	 * Not applied to {@link #verifyAtBlock(SignedJWT, BigInteger)}.
+	 * @param trustRegistry trust registry. null is not checked
+	 */
+	public void setTrustRegistry(TrustRegistry trustRegistry) {
+		this.trustRegistry = trustRegistry;
+	}
+	
+	/**
+	 * Get trusted issuers
+	 * @return trust registry. null if not set
+	 */
+	public TrustRegistry getTrustRegistry() {
+		return trustRegistry;
+	}
+	
+	/**
+	 * Set cache of verified result. Same token is not verified again until result expires.
+	 * @param resultCache result cache. null is disabled
+	 */
+	public void setResultCache(VerifyResultCache resultCache) {
+		this.resultCache = resultCache;
+	}
+	
+	/**
+	 * Get cache of verified result
+	 * @return result cache. null if disabled
+	 */
+	public VerifyResultCache getResultCache() {
+		return resultCache;
+	}
+	
+	/**
+	 * Set replay guard of presentation used by {@link #verifyPresentation(SignedJWT, Executor)}.<br/>
+	 * Presentation of which nonce is seen in window, which has no nonce or issue time, or which is issued out of window fails with {@link PolicyViolationException}.
+	 * @param replayGuard replay guard. null is not checked
+	 */
+	public void setReplayGuard(ReplayGuard replayGuard) {
+		this.replayGuard = replayGuard;
+	}
+	
+	/**
+	 * Get replay guard of presentation
+	 * @return replay guard. null if not set
+	 */
+	public ReplayGuard getReplayGuard() {
+		return replayGuard;
+	}
+	
+	/**
+	 * Set source of public key at past block used by {@link #verifyAtBlock(SignedJWT, BigInteger)}
+	 * @param historicalKeySource historical key source
+	 */
+	public void setHistoricalKeySource(HistoricalPublicKeySource historicalKeySource) {
+		this.historicalKeySource = historicalKeySource;
+	}
+	
+	/**
+	 * Get source of public key at past block
+	 * @return historical key source. null if not set
+	 */
+	public HistoricalPublicKeySource getHistoricalKeySource() {
+		return historicalKeySource;
+	}
+	
+	/**
+	 * Enable precomputed verification of hot public key.<br/>
+	 * Public key of kid used minUses times is verified with {@link PrecomputedECDSAVerifier}.
+	 * Least recently used tables are dropped over memory budget.
+	 * 
+	 * @param minUses number of verifications before table is computed
+	 * @param memoryBudget maximum heap size of tables in bytes. Less than {@link PrecomputedECDSAVerifier#ESTIMATED_TABLE_SIZE} is disabled
+	 */
+	public void setPrecomputation(int minUses, long memoryBudget) {
+		int maximumSize = (int)Math.min(Integer.MAX_VALUE, memoryBudget / PrecomputedECDSAVerifier.ESTIMATED_TABLE_SIZE);
+		this.precomputeThreshold = Math.max(1, minUses);
+		this.precomputedCache = maximumSize > 0 ? new LruCache<>(maximumSize, 0, 0) : null;
+	}
+	
+	/**
+	 * Remove cached keys of did. Use when key of did is changed.
+	 * @param did did
+	 */
+	public void invalidate(String did) {
+		// verifiers of did are dropped when key is changed. see getVerifier
+		keySource.invalidate(did);
+		NegativeCache negativeCache = this.negativeCache;
+		if (negativeCache != null) {
+			negativeCache.invalidate(did);
+		}
+		String prefix = did+"#";
+		if (!warmKeys.isEmpty()) {
+			warmKeys.keySet().removeIf(kid -> kid.startsWith(prefix));
+		}
+		verifierCache.removeIf(kid -> kid.startsWith(prefix));
+		LruCache<String, PrecomputedECDSAVerifier> precomputedCache = this.precomputedCache;
+		if (precomputedCache != null) {
+			precomputedCache.removeIf(kid -> kid.startsWith(prefix));
+		}
+		VerifyResultCache resultCache = this.resultCache;
+		if (resultCache != null) {
+			resultCache.invalidate(did);
+		}
+	}
+	
+	/**
+	 * Remove all cached keys
+	 */
+	public void invalidateAll() {
+		keySource.invalidateAll();
+		NegativeCache negativeCache = this.negativeCache;
+		if (negativeCache != null) {
+			negativeCache.invalidateAll();
+		}
+		warmKeys.clear();
+		verifierCache.clear();
+		LruCache<String, PrecomputedECDSAVerifier> precomputedCache = this.precomputedCache;
+		if (precomputedCache != null) {
+			precomputedCache.clear();
+		}
+		VerifyResultCache resultCache = this.resultCache;
+		if (resultCache != null) {
+			resultCache.invalidateAll();
+		}
+	}
+	
+	/**
+	 * Save public keys of recently verified kid to snapshot file.
+	 * 
+	 * @see #loadSnapshot(File, long)
+	 * @param file snapshot file
+	 * @throws IOException write error
+	 */
+	public void saveSnapshot(File file) throws IOException {
+		Map<String, ECPublicKey> keys = new HashMap<>();
+		long now = System.currentTimeMillis();
+		warmKeys.forEach((kid, warmKey) -> {
+			if (warmKey.expiresAt > now) {
+				keys.put(kid, warmKey.publicKey);
+			}
+		});
+		// invalidated kid is removed from verifier cache. see invalidate
+		Map<String, ECPublicKey> verifiedKeys = new HashMap<>();
+		verifierCache.forEach((kid, keyVerifier) -> verifiedKeys.put(kid, keyVerifier.publicKey));
+		if (keySource instanceof ResolverPublicKeySource) {
+			// key expired or evicted from key cache may be changed. not saved
+			KeyCache keyCache = ((ResolverPublicKeySource)keySource).getKeyCache();
+			verifiedKeys.entrySet().removeIf(entry -> !entry.getValue().equals(keyCache.peek(entry.getKey())));
+		}
+		keys.putAll(verifiedKeys);
+		KeySnapshot.save(file, keys);
+	}
+	
+	/**
+	 * Load public keys from snapshot file for warm start.<br/>
+	 * Loaded keys are used immediately and revalidated by key source in background on resolve executor,
+	 * at most {@link #REVALIDATE_CONCURRENCY} kids at once.
+	 * Key which is changed or not found anymore is replaced or dropped after revalidated.
+	 * Key which can not be revalidated because key source is not available is used until {@link #WARM_KEY_EXPIRY} after loaded.
+	 * 
+	 * @see #saveSnapshot(File)
+	 * @param file snapshot file
+	 * @param maxAgeMillis snapshot older than this is ignored. 0 or less is no limit
+	 * @return number of loaded keys
+	 * @throws IOException read error or invalid format
+	 */
+	public int loadSnapshot(File file, long maxAgeMillis) throws IOException {
+		Map<String, ECPublicKey> keys = KeySnapshot.load(file, maxAgeMillis);
+		long expiresAt = System.currentTimeMillis() + WARM_KEY_EXPIRY;
+		keys.forEach((kid, publicKey) -> warmKeys.put(kid, new WarmKey(publicKey, expiresAt)));
+		
+		// revalidate in background with bounded concurrency
+		Queue<String> queue = new ConcurrentLinkedQueue<>(keys.keySet());
+		for (int i = 0; i < REVALIDATE_CONCURRENCY; i++) {
+			revalidateNext(queue);
+		}
+		return keys.size();
+	}
+	
+	/**
+	 * Revalidate next kid of queue with key source. Next kid is revalidated after current one is finished
+	 * @param queue kids loaded from snapshot
+	 */
+	private void revalidateNext(Queue<String> queue) {
+		String kid;
+		while ((kid = queue.poll()) != null) {
+			String did;
+			try {
+				did = getDid(kid);
+			}
+			catch (DidException e) {
+				warmKeys.remove(kid);
+				continue;
+			}
+			String revalidatingKid = kid;
+			getPublicKeyFromSourceAsync(did, kid).whenCompleteAsync((publicKey, e) -> {
+				if (e == null || !(SingleFlight.unwrap(e) instanceof IOException)) {
+					// key source has current key. keep snapshot key while key source is not available until expired
+					warmKeys.remove(revalidatingKid);
+				}
+				revalidateNext(queue);
+			}, resolveExecutor);
+			return;
+		}
+	}
+	
+	/**
+	 * Load public keys of dids in parallel on resolve executor before first verification. Waits until all dids are loaded.<br/>
+	 * Failure of one did does not affect others.
+	 * 
+	 * @see PublicKeySource#preload(String)
+	 * @param dids dids to load. ex) trusted issuers
+	 * @param buildVerifiers true to also create verifier of each key and precomputed table if {@link #setPrecomputation(int, long)} is enabled
+	 * @return timing and failure of each did
+	 */
+	public WarmUpReport warmUp(Collection<String> dids, boolean buildVerifiers) {
+		long start = System.currentTimeMillis();
+		List<CompletableFuture<WarmUpReport.Entry>> tasks = new ArrayList<>(dids.size());
+		for (String did : dids) {
+			tasks.add(CompletableFuture.supplyAsync(() -> {
+				long didStart = System.currentTimeMillis();
+				try {
+					Map<String, ECPublicKey> keys = keySource.preload(did);
+					if (buildVerifiers) {
+						for (Map.Entry<String, ECPublicKey> entry : keys.entrySet()) {
+							prepareVerifier(entry.getKey(), entry.getValue());
+						}
+					}
+					return new WarmUpReport.Entry(did, keys.size(), System.currentTimeMillis() - didStart, null);
+				}
+				catch (IOException | DidException | RuntimeException e) {
+					return new WarmUpReport.Entry(did, 0, System.currentTimeMillis() - didStart, e);
+				}
+			}, resolveExecutor));
+		}
+		
+		List<WarmUpReport.Entry> entries = new ArrayList<>(tasks.size());
+		for (CompletableFuture<WarmUpReport.Entry> task : tasks) {
+			entries.add(task.join());
+		}
+		return new WarmUpReport(entries, System.currentTimeMillis() - start);
+	}
 	
 	/**
 	 * Verify Verifiable Credential or Verifiable Presentation 
@@ -34,43 +441,715 @@ public class Verifier {
 	 */
 	public boolean verify(SignedJWT signedJWT) throws IOException, DidException {
 		String kid = signedJWT.getHeader().getKeyID();
-		int idx = kid.indexOf('#');
+		String did = checkAndGetDid(signedJWT, kid);
+		
+		return verifyWithCache(did, kid, serializedOf(signedJWT), signedJWT::verify, () -> expirationOf(signedJWT));
+	}
+	
+	/**
+	 * Verify compact JWS of which only header is parsed. Header is not parsed again and payload is not decoded
+	 * unless policy checks time.
+	 * 
+	 * @see CompactJws#parse(String)
+	 * @param jws compact jws
+	 * @return true if signature verified
+	 * @throws IOException resolver network error
+	 * @throws DidException Not found or valid did, kid
+	 */
+	public boolean verify(CompactJws jws) throws IOException, DidException {
+		String kid = jws.getKeyID();
+		String did = checkAndGetDid(jws);
+		
+		return verifyWithCache(did, kid, jws.serialize(), jws::verify, () -> expirationOf(jws));
+	}
+	
+	/**
+	 * Verify Verifiable Credential or Verifiable Presentation with public key of signer at block.<br/>
+	 * Use to check that credential was signed with valid key when issued.
+	 * 
+	 * @param signedJWT signed vc, vp
+	 * @param blockNumber block number
+	 * @return true if signature verified
+	 * @throws IOException node network error
+	 * @throws DidException Not found did, kid at block or historical key source is not set
+	 */
+	public boolean verifyAtBlock(SignedJWT signedJWT, BigInteger blockNumber) throws IOException, DidException {
+		HistoricalPublicKeySource historicalKeySource = this.historicalKeySource;
+		if (historicalKeySource == null) {
+			throw new DidException("Historical key source is not set");
+		}
+		String kid = signedJWT.getHeader().getKeyID();
+		String did = getDid(kid);
+		
+		ECPublicKey publicKey = historicalKeySource.getPublicKey(did, kid, blockNumber);
+		
+		// past key may differ from current key. use cached verifier only if same key
+		KeyVerifier cached = verifierCache.get(kid);
+		ECDSAVerifier verifier = cached != null && cached.publicKey.equals(publicKey) ? cached.verifier : newVerifier(publicKey);
+		try {
+			return signedJWT.verify(verifier);
+		}
+		catch (JOSEException e) {
+			// Invalid public key
+			throw new DidException("Invalid public key", e);
+		}
+	}
+	
+	/**
+	 * Verify Verifiable Credential or Verifiable Presentation with public key of signer at time.<br/>
+	 * Last block at time is used.
+	 * 
+	 * @see #verifyAtBlock(SignedJWT, BigInteger)
+	 * @param signedJWT signed vc, vp
+	 * @param time time. ex) issuance date of credential
+	 * @return true if signature verified
+	 * @throws IOException node network error
+	 * @throws DidException Not found did, kid at time or historical key source is not set
+	 */
+	public boolean verifyAtTime(SignedJWT signedJWT, Date time) throws IOException, DidException {
+		HistoricalPublicKeySource historicalKeySource = this.historicalKeySource;
+		if (historicalKeySource == null) {
+			throw new DidException("Historical key source is not set");
+		}
+		return verifyAtBlock(signedJWT, historicalKeySource.getBlockNumberAt(time.getTime() / 1000));
+	}
+	
+	/**
+	 * Verify multiple Verifiable Credentials or Verifiable Presentations with {@link ForkJoinPool#commonPool()}
+	 * 
+	 * @see #verifyAll(Collection, Executor)
+	 * @param signedJWTs signed vc, vp list
+	 * @return result of each jwt in order of signedJWTs
+	 */
+	public List<VerifyResult> verifyAll(Collection<SignedJWT> signedJWTs) {
+		return verifyAll(signedJWTs, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Verify multiple Verifiable Credentials or Verifiable Presentations.<br/>
+	 * JWTs are grouped by did of kid and each distinct did is resolved once by key source on resolve executor.
+	 * Signatures are verified in parallel on executor. Failure of one jwt does not affect others.
+	 * 
+	 * @see #setResolveExecutor(Executor)
+	 * @param signedJWTs signed vc, vp list
+	 * @param executor executor to verify signature
+	 * @return result of each jwt in order of signedJWTs
+	 */
+	public List<VerifyResult> verifyAll(Collection<SignedJWT> signedJWTs, Executor executor) {
+		return verifyAll(new ArrayList<>(signedJWTs), executor, false);
+	}
+	
+	/**
+	 * Verify jwt list
+	 * @param jwtList signed vc, vp list
+	 * @param executor executor to verify signature
+	 * @param holderFirst first jwt is presentation. issuer of it is not checked with trust registry
+	 * @return result of each jwt in order of jwtList
+	 */
+	private List<VerifyResult> verifyAll(List<SignedJWT> jwtList, Executor executor, boolean holderFirst) {
+		VerifyResult[] results = new VerifyResult[jwtList.size()];
+		
+		// group by did
+		VerifyResultCache resultCache = this.resultCache;
+		String[] resultKeys = new String[results.length];
+		Map<String, List<Integer>> indexesOfDid = new LinkedHashMap<>();
+		for (int i = 0; i < results.length; i++) {
+			try {
+				String did = checkAndGetDid(jwtList.get(i), jwtList.get(i).getHeader().getKeyID(), !(holderFirst && i == 0));
+				if (resultCache != null) {
+					// verified before
+					resultKeys[i] = resultCache.keyOf(did, serializedOf(jwtList.get(i)));
+					Boolean verified = resultCache.get(resultKeys[i]);
+					if (verified != null) {
+						results[i] = new VerifyResult(jwtList.get(i), verified, null);
+						continue;
+					}
+				}
+				indexesOfDid.computeIfAbsent(did, k -> new ArrayList<>()).add(i);
+			}
+			catch (DidException e) {
+				results[i] = VerifyResult.failure(jwtList.get(i), e);
+			}
+		}
+		
+		List<CompletableFuture<Void>> tasks = new ArrayList<>();
+		for (Map.Entry<String, List<Integer>> entry : indexesOfDid.entrySet()) {
+			for (int index : entry.getValue()) {
+				SignedJWT signedJWT = jwtList.get(index);
+				String kid = signedJWT.getHeader().getKeyID();
+				tasks.add(getPublicKeyAsync(entry.getKey(), kid)
+						.thenAcceptAsync(publicKey -> results[index] = verifyToResult(signedJWT, kid, publicKey, resultCache, resultKeys[index]), executor)
+						.exceptionally(e -> {
+							results[index] = VerifyResult.failure(signedJWT, SingleFlight.unwrap(e));
+							return null;
+						})
+				);
+			}
+		}
+		CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+		
+		return Arrays.asList(results);
+	}
+	
+	/**
+	 * Verify Verifiable Presentation and all Verifiable Credentials in it with {@link ForkJoinPool#commonPool()}
+	 * 
+	 * @see #verifyPresentation(SignedJWT, Executor)
+	 * @param signedVp signed vp
+	 * @return result of vp and each vc
+	 */
+	public PresentationVerifyResult verifyPresentation(SignedJWT signedVp) {
+		return verifyPresentation(signedVp, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Verify Verifiable Presentation and all Verifiable Credentials in it.<br/>
+	 * Presentation and credentials are verified concurrently in one {@link #verifyAll(Collection, Executor)} pass,
+	 * so each distinct holder, issuer did is resolved once.
+	 * 
+	 * @param signedVp signed vp
+	 * @param executor executor to verify signature
+	 * @return result of vp and each vc
+	 */
+	public PresentationVerifyResult verifyPresentation(SignedJWT signedVp, Executor executor) {
+		Collection<?> vcList;
+		try {
+			vcList = new VerifiablePresentation(signedVp).getVerifiableCredentials();
+		}
+		catch (Exception e) {
+			// not presentation
+			VerifyResult vpResult = VerifyResult.failure(signedVp, new DidException("Invalid presentation", e));
+			return new PresentationVerifyResult(vpResult, Collections.<VerifyResult>emptyList());
+		}
+		
+		// parse credentials
+		VerifyResult[] vcResults = new VerifyResult[vcList == null ? 0 : vcList.size()];
+		List<SignedJWT> jwtList = new ArrayList<>(vcResults.length + 1);
+		List<Integer> indexOfJwt = new ArrayList<>(vcResults.length);
+		jwtList.add(signedVp);
+		if (vcList != null) {
+			int i = 0;
+			for (Object vc : vcList) {
+				try {
+					jwtList.add(SignedJWT.parse((String)vc));
+					indexOfJwt.add(i);
+				}
+				catch (ParseException | ClassCastException e) {
+					vcResults[i] = VerifyResult.failure(null, new DidException("Invalid credential", e));
+				}
+				i++;
+			}
+		}
+		
+		List<VerifyResult> results = verifyAll(jwtList, executor, true);
+		for (int i = 0; i < indexOfJwt.size(); i++) {
+			vcResults[indexOfJwt.get(i)] = results.get(i + 1);
+		}
+		
+		// replay check only after signature verified. otherwise anyone can burn nonce
+		VerifyResult vpResult = results.get(0);
+		ReplayGuard replayGuard = this.replayGuard;
+		if (replayGuard != null && vpResult.isVerified()) {
+			try {
+				checkReplay(replayGuard, signedVp);
+			}
+			catch (DidException e) {
+				vpResult = VerifyResult.failure(signedVp, e);
+			}
+		}
+		return new PresentationVerifyResult(vpResult, Arrays.asList(vcResults));
+	}
+	
+	/**
+	 * Verify Verifiable Credential or Verifiable Presentation asynchronously with {@link ForkJoinPool#commonPool()}
+	 * 
+	 * @see #verifyAsync(SignedJWT, Executor)
+	 * @param signedJWT signed vc, vp
+	 * @return future of verified result
+	 */
+	public CompletableFuture<Boolean> verifyAsync(SignedJWT signedJWT) {
+		return verifyAsync(signedJWT, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Verify Verifiable Credential or Verifiable Presentation asynchronously.<br/>
+	 * Public key is resolved on resolve executor without blocking caller.
+	 * If public key is cached, signature is verified on caller thread and returned future is already completed.
+	 * Future completes exceptionally with {@link IOException} (resolver network error) or {@link DidException} (Not found or valid did, kid).
+	 * 
+	 * @see #setResolveExecutor(Executor)
+	 * @param signedJWT signed vc, vp
+	 * @param executor executor to verify signature after resolved
+	 * @return future of verified result
+	 */
+	public CompletableFuture<Boolean> verifyAsync(SignedJWT signedJWT, Executor executor) {
+		String kid = signedJWT.getHeader().getKeyID();
+		String did;
+		try {
+			did = checkAndGetDid(signedJWT, kid);
+		}
+		catch (DidException e) {
+			return SingleFlight.failedFuture(e);
+		}
+		
+		// verified before
+		VerifyResultCache resultCache = this.resultCache;
+		String resultKey = resultCache == null ? null : resultCache.keyOf(did, serializedOf(signedJWT));
+		if (resultKey != null) {
+			Boolean verified = resultCache.get(resultKey);
+			if (verified != null) {
+				return CompletableFuture.completedFuture(verified);
+			}
+		}
+		
+		CompletableFuture<ECPublicKey> keyFuture = getPublicKeyAsync(did, kid);
+		if (keyFuture.isDone() && !keyFuture.isCompletedExceptionally()) {
+			// cached. verify without thread hop
+			try {
+				return CompletableFuture.completedFuture(verifyAndCache(signedJWT, kid, keyFuture.join(), resultCache, resultKey));
+			}
+			catch (DidException | RuntimeException e) {
+				return SingleFlight.failedFuture(e);
+			}
+		}
+		return keyFuture.thenApplyAsync(publicKey -> {
+			try {
+				return verifyAndCache(signedJWT, kid, publicKey, resultCache, resultKey);
+			}
+			catch (DidException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+	
+	/**
+	 * Get did from key id
+	 * @param kid key id. did#MetaManagementKey#address
+	 * @return did
+	 * @throws DidException invalid key id
+	 */
+	private static String getDid(String kid) throws DidException {
+		int idx = kid == null ? -1 : kid.indexOf('#');
 		if (idx < 0) {
 			// invalid key id
 			throw new DidException("invalid keyId");
 		}
-		String did = kid.substring(0, idx);
-		
-		// Get DID document
-		if (!docCache.containsKey(did)) {
-			DIDResolverResponse response = DIDResolverAPI.getInstance().requestDocument(did, true);
-			if (response == null || response.getDidDocument() == null) {
-				// not found did
-				throw new DidException("Not found did. "+did);
+		return kid.substring(0, idx);
+	}
+	
+	/**
+	 * Verify token with public key of kid. Result of same token verified before is returned from result cache
+	 * @param did did of kid
+	 * @param kid key id of token
+	 * @param serialized serialized token
+	 * @param token signature of token
+	 * @param expiration exp of token. called only if result is cached
+	 * @return true if signature verified
+	 * @throws IOException network error
+	 * @throws DidException Not found did, kid or not valid public key
+	 */
+	private boolean verifyWithCache(String did, String kid, String serialized, SignedToken token, Supplier<Date> expiration) throws IOException, DidException {
+		// verified before
+		VerifyResultCache resultCache = this.resultCache;
+		String resultKey = resultCache == null ? null : resultCache.keyOf(did, serialized);
+		if (resultKey != null) {
+			Boolean verified = resultCache.get(resultKey);
+			if (verified != null) {
+				return verified;
 			}
-			docCache.put(did, response.getDidDocument());
 		}
-		DidDocument doc = docCache.get(did);
 		
-
-		// Get Key
-		PublicKey publicKeyOfIssuer = doc.getPublicKey(kid);
-		if (publicKeyOfIssuer == null) {
-			// Not found public key
-			throw new DidException("Not found public key. "+kid);
+		// Get public key
+		ECPublicKey publicKey = getPublicKey(did, kid);
+		
+		return verifyAndCache(token, expiration, kid, publicKey, resultCache, resultKey);
+	}
+	
+	/**
+	 * Verify signature and put result to result cache
+	 * @param resultCache result cache. null if disabled
+	 * @param resultKey key of token in result cache. null if disabled
+	 * @see #verifySignature(SignedToken, String, ECPublicKey)
+	 */
+	private boolean verifyAndCache(SignedJWT signedJWT, String kid, ECPublicKey publicKey, VerifyResultCache resultCache, String resultKey) throws DidException {
+		return verifyAndCache(signedJWT::verify, () -> expirationOf(signedJWT), kid, publicKey, resultCache, resultKey);
+	}
+	
+	/**
+	 * Verify signature and put result to result cache
+	 * @param token signature of token
+	 * @param expiration exp of token
+	 * @param resultCache result cache. null if disabled
+	 * @param resultKey key of token in result cache. null if disabled
+	 */
+	private boolean verifyAndCache(SignedToken token, Supplier<Date> expiration, String kid, ECPublicKey publicKey, VerifyResultCache resultCache, String resultKey) throws DidException {
+		boolean verified = verifySignature(token, kid, publicKey);
+		if (resultKey != null) {
+			resultCache.put(resultKey, verified, expiration.get());
+		}
+		return verified;
+	}
+	
+	/**
+	 * Get serialized token. parsed string if parsed
+	 */
+	private static String serializedOf(SignedJWT signedJWT) {
+		String serialized = signedJWT.getParsedString();
+		return serialized != null ? serialized : signedJWT.serialize();
+	}
+	
+	/**
+	 * Get exp of token
+	 * @return exp. null if not exists or invalid claims
+	 */
+	private static Date expirationOf(SignedJWT signedJWT) {
+		try {
+			return signedJWT.getJWTClaimsSet().getExpirationTime();
+		}
+		catch (ParseException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Get exp of token. Payload is decoded if not decoded yet
+	 * @return exp. null if not exists or invalid claims
+	 */
+	private static Date expirationOf(CompactJws jws) {
+		try {
+			return jws.getJWTClaimsSet().getExpirationTime();
+		}
+		catch (ParseException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Check nonce of presentation is not replayed
+	 * @param replayGuard replay guard
+	 * @param signedVp verified vp
+	 * @throws PolicyViolationException replayed, no nonce, no issue time or issued out of window
+	 */
+	private static void checkReplay(ReplayGuard replayGuard, SignedJWT signedVp) throws DidException {
+		JWTClaimsSet claimsSet;
+		String nonce;
+		try {
+			claimsSet = signedVp.getJWTClaimsSet();
+			nonce = claimsSet.getStringClaim("nonce");
+		}
+		catch (ParseException e) {
+			throw new PolicyViolationException("Invalid claims", e);
+		}
+		if (nonce == null) {
+			throw new PolicyViolationException("No nonce");
+		}
+		Date iat = claimsSet.getIssueTime();
+		if (iat == null) {
+			// can not know nonce is forgotten or not
+			throw new PolicyViolationException("No issue time");
+		}
+		if (!replayGuard.isInWindow(iat.getTime(), System.currentTimeMillis())) {
+			// seen nonce out of window is forgotten
+			throw new PolicyViolationException("Presentation is issued out of replay window");
+		}
+		if (!replayGuard.checkAndRecord(getDid(signedVp.getHeader().getKeyID()), nonce)) {
+			throw new PolicyViolationException("Replayed presentation");
+		}
+	}
+	
+	/**
+	 * Run policy, trust registry and get did of kid
+	 * @param signedJWT signed vc, vp
+	 * @param kid key id of jwt
+	 * @return did
+	 * @throws DidException rejected by policy, untrusted issuer or invalid key id
+	 */
+	private String checkAndGetDid(SignedJWT signedJWT, String kid) throws DidException {
+		return checkAndGetDid(signedJWT, kid, true);
+	}
+	
+	/**
+	 * Run policy, trust registry and get did of kid
+	 * @param signedJWT signed vc, vp
+	 * @param kid key id of jwt
+	 * @param checkTrust check did with trust registry
+	 * @return did
+	 * @throws DidException rejected by policy, untrusted issuer or invalid key id
+	 */
+	private String checkAndGetDid(SignedJWT signedJWT, String kid, boolean checkTrust) throws DidException {
+		VerifyPolicy policy = this.policy;
+		if (policy != null) {
+			policy.check(signedJWT, kid);
 		}
-		ECPublicKey userPublicKey = (ECPublicKey)publicKeyOfIssuer.getPublicKey();
+		String did = getDid(kid);
+		if (checkTrust) {
+			checkTrusted(did);
+		}
+		return did;
+	}
+	
+	/**
+	 * Check did is in trust registry
+	 * @param did did of issuer
+	 * @throws PolicyViolationException not trusted
+	 */
+	private void checkTrusted(String did) throws PolicyViolationException {
+		TrustRegistry trustRegistry = this.trustRegistry;
+		if (trustRegistry != null && !trustRegistry.isTrusted(did)) {
+			throw new PolicyViolationException("Untrusted issuer. "+did);
+		}
+	}
+	
+	/**
+	 * Run policy, trust registry and get did of kid
+	 * @param jws compact jws
+	 * @return did
+	 * @throws DidException rejected by policy, untrusted issuer or invalid key id
+	 */
+	private String checkAndGetDid(CompactJws jws) throws DidException {
+		VerifyPolicy policy = this.policy;
+		if (policy != null) {
+			policy.check(jws);
+		}
+		String did = getDid(jws.getKeyID());
+		checkTrusted(did);
+		return did;
+	}
+	
+	/**
+	 * Get public key of kid. Key loaded from snapshot is used until revalidated.
+	 * @param did did
+	 * @param kid key id
+	 * @return public key
+	 * @throws IOException network error
+	 * @throws DidException Not found did, kid
+	 */
+	private ECPublicKey getPublicKey(String did, String kid) throws IOException, DidException {
+		ECPublicKey warmKey = getWarmKey(kid);
+		if (warmKey != null) {
+			return warmKey;
+		}
+		return getPublicKeyFromSource(did, kid);
+	}
+	
+	/**
+	 * Get key loaded from snapshot which is not revalidated yet
+	 * @param kid key id
+	 * @return public key. null if not loaded, revalidated or expired
+	 */
+	private ECPublicKey getWarmKey(String kid) {
+		if (warmKeys.isEmpty()) {
+			return null;
+		}
+		WarmKey warmKey = warmKeys.get(kid);
+		if (warmKey == null) {
+			return null;
+		}
+		if (warmKey.expiresAt <= System.currentTimeMillis()) {
+			warmKeys.remove(kid, warmKey);
+			return null;
+		}
+		return warmKey.publicKey;
+	}
+	
+	/**
+	 * Get public key of kid asynchronously on resolve executor
+	 * @see #getPublicKey(String, String)
+	 */
+	private CompletableFuture<ECPublicKey> getPublicKeyAsync(String did, String kid) {
+		ECPublicKey warmKey = getWarmKey(kid);
+		if (warmKey != null) {
+			return CompletableFuture.completedFuture(warmKey);
+		}
+		return getPublicKeyFromSourceAsync(did, kid);
+	}
+	
+	/**
+	 * Get public key from key source. Known not found did, kid are rejected without request.
+	 * @param did did
+	 * @param kid key id
+	 * @return public key
+	 * @throws IOException network error
+	 * @throws DidException Not found did, kid
+	 */
+	private ECPublicKey getPublicKeyFromSource(String did, String kid) throws IOException, DidException {
+		NegativeCache negativeCache = this.negativeCache;
+		if (negativeCache == null) {
+			return keySource.getPublicKey(did, kid);
+		}
+		
+		negativeCache.check(did, kid);
+		try {
+			return keySource.getPublicKey(did, kid);
+		}
+		catch (DidException e) {
+			negativeCache.record(did, kid, e);
+			throw e;
+		}
+	}
+	
+	/**
+	 * Get public key from key source asynchronously on resolve executor
+	 * @see #getPublicKeyFromSource(String, String)
+	 */
+	private CompletableFuture<ECPublicKey> getPublicKeyFromSourceAsync(String did, String kid) {
+		NegativeCache negativeCache = this.negativeCache;
+		if (negativeCache == null) {
+			return keySource.getPublicKeyAsync(did, kid, resolveExecutor);
+		}
+		
+		try {
+			negativeCache.check(did, kid);
+		}
+		catch (DidException e) {
+			return SingleFlight.failedFuture(e);
+		}
+		CompletableFuture<ECPublicKey> future = keySource.getPublicKeyAsync(did, kid, resolveExecutor);
+		if (future.isDone() && !future.isCompletedExceptionally()) {
+			return future;
+		}
+		return future.whenComplete((publicKey, e) -> {
+			if (e != null) {
+				negativeCache.record(did, kid, SingleFlight.unwrap(e));
+			}
+		});
+	}
+	
+	/**
+	 * Verify signature of token with verifier of kid
+	 * @param token signed jwt or compact jws
+	 * @param kid key id of token
+	 * @param publicKey public key of kid
+	 * @return true if signature verified
+	 * @throws DidException Not valid public key
+	 */
+	private boolean verifySignature(SignedToken token, String kid, ECPublicKey publicKey) throws DidException {
+		JWSVerifier verifier = getVerifier(kid, publicKey);
 		
 		// verify
-		ECDSAVerifier verifier;
 		try {
-			verifier = new ECDSAVerifier(userPublicKey);
+			return token.verify(verifier);
+		}
+		catch (JOSEException e) {
+			// Invalid public key
+			throw new DidException("Invalid public key", e);
+		}
+	}
+	
+	/**
+	 * Get verifier of kid.<br/>
+	 * Verifier is reused while public key of kid is not changed.
+	 * If precomputation is enabled, precomputed verifier is used for hot kid.
+	 * Use count is reset when precomputed, so evicted kid is precomputed again only after verified threshold times.
+	 * 
+	 * @param kid key id
+	 * @param publicKey public key of kid
+	 * @return verifier
+	 * @throws DidException Not valid public key
+	 */
+	private JWSVerifier getVerifier(String kid, ECPublicKey publicKey) throws DidException {
+		LruCache<String, PrecomputedECDSAVerifier> precomputedCache = this.precomputedCache;
+		if (precomputedCache != null) {
+			PrecomputedECDSAVerifier precomputed = precomputedCache.get(kid);
+			if (precomputed != null && (precomputed.getPublicKey() == publicKey || precomputed.getPublicKey().equals(publicKey))) {
+				return precomputed;
+			}
+		}
+		
+		KeyVerifier cached = verifierCache.get(kid);
+		if (cached != null && (cached.publicKey == publicKey || cached.publicKey.equals(publicKey))) {
+			// only one thread builds table. kid must be hot again after table is evicted
+			if (precomputedCache != null && cached.uses.incrementAndGet() >= precomputeThreshold && cached.uses.getAndSet(0) >= precomputeThreshold) {
+				try {
+					PrecomputedECDSAVerifier precomputed = new PrecomputedECDSAVerifier(publicKey);
+					precomputedCache.put(kid, precomputed);
+					return precomputed;
+				}
+				catch (JOSEException e) {
+					// not secp256k1 key. use JCA verifier
+				}
+			}
+			return cached.verifier;
+		}
+		
+		ECDSAVerifier verifier = newVerifier(publicKey);
+		verifierCache.put(kid, new KeyVerifier(publicKey, verifier));
+		return verifier;
+	}
+	
+	/**
+	 * Create verifier of kid and precomputed table if enabled
+	 * @param kid key id
+	 * @param publicKey public key of kid
+	 * @throws DidException Not valid public key
+	 */
+	private void prepareVerifier(String kid, ECPublicKey publicKey) throws DidException {
+		getVerifier(kid, publicKey);
+		LruCache<String, PrecomputedECDSAVerifier> precomputedCache = this.precomputedCache;
+		if (precomputedCache != null) {
+			try {
+				precomputedCache.put(kid, new PrecomputedECDSAVerifier(publicKey));
+			}
+			catch (JOSEException e) {
+				// not secp256k1 key. use JCA verifier
+			}
+		}
+	}
+	
+	private static ECDSAVerifier newVerifier(ECPublicKey publicKey) throws DidException {
+		try {
+			ECDSAVerifier verifier = new ECDSAVerifier(publicKey);
 			verifier.getJCAContext().setProvider(BouncyCastleProviderSingleton.getInstance());
-			return signedJWT.verify(verifier);
+			return verifier;
 		}
 		catch (JOSEException e) {
 			// Invalid public key
 			throw new DidException("Invalid public key", e);
 		}
 	}
+	
+	private VerifyResult verifyToResult(SignedJWT signedJWT, String kid, ECPublicKey publicKey, VerifyResultCache resultCache, String resultKey) {
+		try {
+			return new VerifyResult(signedJWT, verifyAndCache(signedJWT, kid, publicKey, resultCache, resultKey), null);
+		}
+		catch (DidException | RuntimeException e) {
+			return VerifyResult.failure(signedJWT, e);
+		}
+	}
+	
+	/**
+	 * Token of which signature is checked by verifier. {@link SignedJWT} or {@link CompactJws}
+	 */
+	private interface SignedToken {
+		boolean verify(JWSVerifier verifier) throws JOSEException;
+	}
+	
+	/**
+	 * Public key loaded from snapshot
+	 */
+	private static class WarmKey {
+		final ECPublicKey publicKey;
+		/** not revalidated key is not used after this time */
+		final long expiresAt;
+		
+		WarmKey(ECPublicKey publicKey, long expiresAt) {
+			this.publicKey = publicKey;
+			this.expiresAt = expiresAt;
+		}
+	}
+	
+	/**
+	 * Verifier of kid with public key
+	 */
+	private static class KeyVerifier {
+		final ECPublicKey publicKey;
+		final ECDSAVerifier verifier;
+		/** number of verifications. counted only if precomputation is enabled */
+		final AtomicInteger uses = new AtomicInteger();
+		
+		KeyVerifier(ECPublicKey publicKey, ECDSAVerifier verifier) {
+			this.publicKey = publicKey;
+			this.verifier = verifier;
+		}
+	}
 }
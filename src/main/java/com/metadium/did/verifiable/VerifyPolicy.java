@@ -0,0 +1,170 @@
+package com.metadium.did.verifiable;
+
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.metadium.did.exception.PolicyViolationException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+/**
+ * Cheap checks of JWT run by {@link Verifier} before public key is resolved and signature is verified.<p/>
+ *
+ * Checks run in order of cost and stop at first failure.
+ * <ol>
+ * <li>algorithm allow-list</li>
+ * <li>kid syntax</li>
+ * <li>allowed issuer did</li>
+ * <li>exp, nbf with clock skew</li>
+ * </ol>
+ * Configure before set to verifier.
+ * <pre>
+ * verifier.setPolicy(new VerifyPolicy().setAllowedIssuers(Arrays.asList(issuerDid)).setClockSkew(30000));
+ * </pre>
+ */
+public class VerifyPolicy {
+	/** Default clock skew. 1 minute */
+	public static final long DEFAULT_CLOCK_SKEW = 60 * 1000L;
+
+	/** did:meta[:network]:ein#key-name#address */
+	private static final Pattern KID_PATTERN = Pattern.compile("^did:meta:(?:[0-9a-zA-Z]+:)*[0-9a-fA-F]{64}#[^#]+#(?:0x)?[0-9a-fA-F]{40}$");
+
+	private Set<JWSAlgorithm> allowedAlgorithms = Collections.singleton(JWSAlgorithm.ES256K);
+
+	private boolean checkKid = true;
+
+	private Set<String> allowedIssuers;
+
+	private boolean checkTime = true;
+
+	private long clockSkewMillis = DEFAULT_CLOCK_SKEW;
+
+	/**
+	 * Set allowed signing algorithms. Default is ES256K
+	 * @param algorithms algorithms. null is any
+	 * @return this
+	 */
+	public VerifyPolicy setAllowedAlgorithms(JWSAlgorithm... algorithms) {
+		this.allowedAlgorithms = algorithms == null ? null : Collections.unmodifiableSet(new HashSet<>(Arrays.asList(algorithms)));
+		return this;
+	}
+
+	/**
+	 * Set whether kid syntax is checked. Default is true
+	 * @param checkKid true to check
+	 * @return this
+	 */
+	public VerifyPolicy setCheckKid(boolean checkKid) {
+		this.checkKid = checkKid;
+		return this;
+	}
+
+	/**
+	 * Set allowed signer dids. Default is any
+	 * @param issuers did list. null is any
+	 * @return this
+	 */
+	public VerifyPolicy setAllowedIssuers(Collection<String> issuers) {
+		this.allowedIssuers = issuers == null ? null : Collections.unmodifiableSet(new HashSet<>(issuers));
+		return this;
+	}
+
+	/**
+	 * Set whether exp, nbf claims are checked. Default is true
+	 * @param checkTime true to check
+	 * @return this
+	 */
+	public VerifyPolicy setCheckTime(boolean checkTime) {
+		this.checkTime = checkTime;
+		return this;
+	}
+
+	/**
+	 * Set allowed clock skew of exp, nbf. Default is {@link #DEFAULT_CLOCK_SKEW}
+	 * @param clockSkewMillis clock skew in milliseconds
+	 * @return this
+	 */
+	public VerifyPolicy setClockSkew(long clockSkewMillis) {
+		this.clockSkewMillis = Math.max(0, clockSkewMillis);
+		return this;
+	}
+
+	/**
+	 * Check JWT
+	 * @param signedJWT signed vc, vp
+	 * @param kid key id of jwt
+	 * @throws PolicyViolationException rejected
+	 */
+	public void check(SignedJWT signedJWT, String kid) throws PolicyViolationException {
+		checkHeader(signedJWT.getHeader(), kid);
+		if (checkTime) {
+			try {
+				checkTime(signedJWT.getJWTClaimsSet());
+			}
+			catch (ParseException e) {
+				throw new PolicyViolationException("Invalid claims", e);
+			}
+		}
+	}
+
+	/**
+	 * Check JWS of which only header is parsed. Payload is decoded only if time is checked
+	 * @param jws compact jws
+	 * @throws PolicyViolationException rejected
+	 */
+	public void check(CompactJws jws) throws PolicyViolationException {
+		checkHeader(jws.getHeader(), jws.getKeyID());
+		if (checkTime) {
+			try {
+				checkTime(jws.getJWTClaimsSet());
+			}
+			catch (ParseException e) {
+				throw new PolicyViolationException("Invalid claims", e);
+			}
+		}
+	}
+
+	private void checkHeader(JWSHeader header, String kid) throws PolicyViolationException {
+		// algorithm
+		if (allowedAlgorithms != null && !allowedAlgorithms.contains(header.getAlgorithm())) {
+			throw new PolicyViolationException("Not allowed algorithm. "+header.getAlgorithm());
+		}
+
+		// kid
+		if (kid == null) {
+			throw new PolicyViolationException("No keyId");
+		}
+		if (checkKid && !KID_PATTERN.matcher(kid).matches()) {
+			throw new PolicyViolationException("invalid keyId. "+kid);
+		}
+
+		// issuer
+		if (allowedIssuers != null) {
+			int idx = kid.indexOf('#');
+			String did = idx < 0 ? kid : kid.substring(0, idx);
+			if (!allowedIssuers.contains(did)) {
+				throw new PolicyViolationException("Not allowed issuer. "+did);
+			}
+		}
+	}
+
+	private void checkTime(JWTClaimsSet claimsSet) throws PolicyViolationException {
+		long now = System.currentTimeMillis();
+		Date exp = claimsSet.getExpirationTime();
+		if (exp != null && now - clockSkewMillis >= exp.getTime()) {
+			throw new PolicyViolationException("Expired. exp="+exp.getTime() / 1000);
+		}
+		Date nbf = claimsSet.getNotBeforeTime();
+		if (nbf != null && now + clockSkewMillis < nbf.getTime()) {
+			throw new PolicyViolationException("Not yet valid. nbf="+nbf.getTime() / 1000);
+		}
+	}
+}
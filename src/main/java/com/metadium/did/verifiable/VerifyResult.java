@@ -0,0 +1,56 @@
+package com.metadium.did.verifiable;
+
+import com.nimbusds.jwt.SignedJWT;
+
+/**
+ * Result of verifying one signed vc or vp
+ * 
+ * @see Verifier#verifyAll(java.util.Collection)
+ */
+public class VerifyResult {
+	private final SignedJWT signedJWT;
+	
+	private final boolean verified;
+	
+	private final Exception error;
+	
+	VerifyResult(SignedJWT signedJWT, boolean verified, Exception error) {
+		this.signedJWT = signedJWT;
+		this.verified = verified;
+		this.error = error;
+	}
+	
+	static VerifyResult failure(SignedJWT signedJWT, Exception error) {
+		return new VerifyResult(signedJWT, false, error);
+	}
+	
+	/**
+	 * Get verified jwt
+	 * @return signed vc, vp
+	 */
+	public SignedJWT getSignedJWT() {
+		return signedJWT;
+	}
+	
+	/**
+	 * Signature is valid
+	 * @return true if signature verified
+	 */
+	public boolean isVerified() {
+		return verified;
+	}
+	
+	/**
+	 * Get error occurred while verifying.
+	 * {@link java.io.IOException} is resolver network error, {@link com.metadium.did.exception.DidException} is not found or valid did, kid
+	 * @return error. null if no error
+	 */
+	public Exception getError() {
+		return error;
+	}
+	
+	@Override
+	public String toString() {
+		return "VerifyResult{verified="+verified+(error == null ? "" : ", error="+error)+"}";
+	}
+}
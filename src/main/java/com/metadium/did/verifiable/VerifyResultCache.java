@@ -0,0 +1,135 @@
+package com.metadium.did.verifiable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+
+import com.metadium.did.util.cache.LruCache;
+
+/**
+ * Cache of verified result by SHA-256 digest of serialized JWS.<br/>
+ * {@link Verifier} returns result of same token without resolving key and verifying signature again.
+ * Result expires at exp of token or TTL whichever is earlier, and is removed when did is invalidated.
+ */
+public class VerifyResultCache {
+	/** Default maximum number of token */
+	public static final int DEFAULT_MAXIMUM_SIZE = 100000;
+
+	/** Default TTL. 1 minute */
+	public static final long DEFAULT_TTL = 60 * 1000L;
+
+	/** result by did|digest */
+	private final LruCache<String, Result> cache;
+
+	private final long ttlMillis;
+
+	/**
+	 * Create cache
+	 * @param maximumSize maximum number of token
+	 * @param ttlMillis result expires after this time. must be positive
+	 */
+	public VerifyResultCache(int maximumSize, long ttlMillis) {
+		if (ttlMillis <= 0) {
+			throw new IllegalArgumentException("ttlMillis must be positive");
+		}
+		this.cache = new LruCache<>(maximumSize, ttlMillis, 0);
+		this.ttlMillis = ttlMillis;
+	}
+
+	/**
+	 * Create cache with default settings
+	 * @see #DEFAULT_MAXIMUM_SIZE
+	 * @see #DEFAULT_TTL
+	 */
+	public VerifyResultCache() {
+		this(DEFAULT_MAXIMUM_SIZE, DEFAULT_TTL);
+	}
+
+	/**
+	 * Make key of token
+	 * @param did did of kid
+	 * @param serialized serialized JWS
+	 * @return key
+	 */
+	String keyOf(String did, String serialized) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(serialized.getBytes(StandardCharsets.US_ASCII));
+			return did+"|"+Base64.getEncoder().encodeToString(digest);
+		}
+		catch (NoSuchAlgorithmException e) {
+			// SHA-256 is always supported
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Get cached result
+	 * @param key key of token
+	 * @return verified result. null if not cached or expired
+	 */
+	Boolean get(String key) {
+		Result result = cache.get(key);
+		if (result == null) {
+			return null;
+		}
+		if (result.expiresAt <= System.currentTimeMillis()) {
+			cache.remove(key);
+			return null;
+		}
+		return result.verified;
+	}
+
+	/**
+	 * Put result
+	 * @param key key of token
+	 * @param verified verified result
+	 * @param exp expiration time of token. null if not exists
+	 */
+	void put(String key, boolean verified, Date exp) {
+		long expiresAt = System.currentTimeMillis() + ttlMillis;
+		if (exp != null) {
+			expiresAt = Math.min(expiresAt, exp.getTime());
+		}
+		cache.put(key, new Result(verified, expiresAt));
+	}
+
+	/**
+	 * Remove results of did
+	 * @param did did
+	 */
+	public void invalidate(String did) {
+		String prefix = did+"|";
+		cache.removeIf(key -> key.startsWith(prefix));
+	}
+
+	/**
+	 * Remove all results
+	 */
+	public void invalidateAll() {
+		cache.clear();
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	public long getHitCount() {
+		return cache.getHitCount();
+	}
+
+	public long getMissCount() {
+		return cache.getMissCount();
+	}
+
+	private static class Result {
+		final boolean verified;
+		final long expiresAt;
+
+		Result(boolean verified, long expiresAt) {
+			this.verified = verified;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.metadium.did.verifiable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of {@link Verifier#warmUp(java.util.Collection, boolean)}
+ */
+public class WarmUpReport {
+	private final List<Entry> entries;
+
+	private final long elapsedMillis;
+
+	WarmUpReport(List<Entry> entries, long elapsedMillis) {
+		this.entries = Collections.unmodifiableList(entries);
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * Get result of each did in requested order
+	 * @return results
+	 */
+	public List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Get results of failed did
+	 * @return failed results
+	 */
+	public List<Entry> getFailures() {
+		List<Entry> failures = new ArrayList<>();
+		for (Entry entry : entries) {
+			if (entry.getError() != null) {
+				failures.add(entry);
+			}
+		}
+		return failures;
+	}
+
+	/**
+	 * All did are loaded
+	 * @return true if no failure
+	 */
+	public boolean isAllSucceeded() {
+		for (Entry entry : entries) {
+			if (entry.getError() != null) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get total elapsed time
+	 * @return milliseconds
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "WarmUpReport{dids="+entries.size()+", failures="+getFailures().size()+", elapsed="+elapsedMillis+"ms}";
+	}
+
+	/**
+	 * Result of one did
+	 */
+	public static class Entry {
+		private final String did;
+		private final int keyCount;
+		private final long elapsedMillis;
+		private final Exception error;
+
+		Entry(String did, int keyCount, long elapsedMillis, Exception error) {
+			this.did = did;
+			this.keyCount = keyCount;
+			this.elapsedMillis = elapsedMillis;
+			this.error = error;
+		}
+
+		public String getDid() {
+			return did;
+		}
+
+		/**
+		 * Get number of loaded public keys
+		 * @return count
+		 */
+		public int getKeyCount() {
+			return keyCount;
+		}
+
+		/**
+		 * Get time to load keys of did
+		 * @return milliseconds
+		 */
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+
+		/**
+		 * Get error occurred while loading.
+		 * {@link java.io.IOException} is network error, {@link com.metadium.did.exception.DidException} is not found or valid did
+		 * @return error. null if no error
+		 */
+		public Exception getError() {
+			return error;
+		}
+
+		@Override
+		public String toString() {
+			return "Entry{did="+did+", keys="+keyCount+", elapsed="+elapsedMillis+"ms"+(error == null ? "" : ", error="+error)+"}";
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package com.metadium.did;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.metadium.did.crypto.MetadiumKey;
+import com.metadium.did.exception.DidException;
+
+public class DidProvisionerTest {
+	private StubMetaDelegator delegator;
+
+	/** error of result by index. wallet is null of key failure */
+	private Map<Long, DidException> errors;
+
+	private Map<Long, MetadiumWallet> wallets;
+
+	private DidProvisioner.ResultListener listener;
+
+	@Before
+	public void setUp() {
+		delegator = new StubMetaDelegator();
+		errors = new ConcurrentHashMap<>();
+		wallets = new ConcurrentHashMap<>();
+		listener = (index, wallet, error) -> {
+			errors.put(index, error);
+			if (wallet != null) {
+				wallets.put(index, wallet);
+			}
+		};
+	}
+
+	@After
+	public void tearDown() {
+		delegator.close();
+	}
+
+	/**
+	 * Keys of which create_identity transaction fails, so DID is finished with one transaction
+	 */
+	private List<MetadiumKey> failingKeys(int count) throws InvalidAlgorithmParameterException {
+		List<MetadiumKey> keys = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			MetadiumKey key = new MetadiumKey();
+			delegator.failTransaction("createIdentity:"+key.getAddress());
+			keys.add(key);
+		}
+		return keys;
+	}
+
+	@Test
+	public void testInFlightLimit() throws Exception {
+		delegator.setMiningTime(50);
+		List<MetadiumKey> keys = failingKeys(12);
+
+		DidProvisioner.Summary summary = new DidProvisioner(delegator, 3, null).provision(keys.iterator(), listener);
+		assertEquals(0, summary.getCreatedCount());
+		assertEquals(12, summary.getFailedCount());
+		assertEquals(12, errors.size());
+		for (long i = 0; i < 12; i++) {
+			assertTrue(errors.get(i).getMessage().startsWith("Failed to create DID."));
+			assertEquals(keys.get((int)i), wallets.get(i).getKey());
+			assertNull(wallets.get(i).getDid());
+		}
+
+		// no more than 3 DIDs wait receipt at once
+		assertTrue(delegator.getMaxPendingTxCount() <= 3);
+		assertTrue(delegator.getMaxPendingTxCount() > 1);
+	}
+
+	@Test
+	public void testRejectedExecutor() throws Exception {
+		DidProvisioner provisioner = new DidProvisioner(delegator, 2, command -> {
+			throw new RejectedExecutionException("shutdown");
+		});
+
+		// slots are released, so returns without waiting
+		DidProvisioner.Summary summary = provisioner.provision(failingKeys(5).iterator(), listener);
+		assertEquals(5, summary.getFailedCount());
+		for (long i = 0; i < 5; i++) {
+			assertTrue(errors.get(i).getCause() instanceof RejectedExecutionException);
+			assertNotNull(wallets.get(i));
+		}
+		assertTrue(delegator.getRequests().isEmpty());
+	}
+
+	@Test
+	public void testBrokenKeys() throws Exception {
+		Iterator<MetadiumKey> keys = failingKeys(2).iterator();
+		DidProvisioner.Summary summary = new DidProvisioner(delegator, 2, null).provision(new Iterator<MetadiumKey>() {
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public MetadiumKey next() {
+				if (!keys.hasNext()) {
+					throw new IllegalStateException("no key");
+				}
+				return keys.next();
+			}
+		}, listener);
+
+		// DIDs in flight are finished and failed key is reported without wallet
+		assertEquals(3, summary.getFailedCount());
+		assertEquals(3, errors.size());
+		assertEquals(2, wallets.size());
+		assertTrue(errors.get(2L).getCause() instanceof IllegalStateException);
+	}
+}
@@ -0,0 +1,131 @@
+package com.metadium.did;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.security.InvalidAlgorithmParameterException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.metadium.did.crypto.MetadiumKey;
+import com.metadium.did.exception.DidException;
+
+public class MetadiumWalletAsyncTest {
+	private static final String DID = "did:meta:testnet:000000000000000000000000000000000000000000000000000000000000112b";
+
+	private StubMetaDelegator delegator;
+
+	private MetadiumKey oldKey;
+
+	private MetadiumKey newKey;
+
+	private MetadiumWallet wallet;
+
+	@Before
+	public void setUp() throws InvalidAlgorithmParameterException {
+		delegator = new StubMetaDelegator();
+		oldKey = new MetadiumKey();
+		newKey = new MetadiumKey();
+		wallet = new MetadiumWallet(DID, oldKey);
+	}
+
+	@After
+	public void tearDown() {
+		delegator.close();
+	}
+
+	private static Throwable failureOf(CompletableFuture<?> future) throws Exception {
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail();
+			return null;
+		}
+		catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof DidException);
+			return e.getCause();
+		}
+	}
+
+	@Test
+	public void testUpdateKey() throws Exception {
+		BigInteger blockNumber = wallet.updateKeyOfDidAsync(delegator, newKey, null).get(5, TimeUnit.SECONDS);
+		assertEquals(BigInteger.valueOf(0x10), blockNumber);
+		assertSame(newKey, wallet.getKey());
+		assertEquals(Arrays.asList(
+				"addAssociatedAddress:"+newKey.getAddress(),
+				"addPublicKey:"+newKey.getAddress(),
+				"removePublicKey:"+oldKey.getAddress(),
+				"removeAssociatedAddress:"+oldKey.getAddress()
+		), delegator.getRequests());
+	}
+
+	@Test
+	public void testUpdateKeyRollback() throws Exception {
+		delegator.failTransaction("removePublicKey:"+oldKey.getAddress());
+
+		Throwable e = failureOf(wallet.updateKeyOfDidAsync(delegator, newKey, null));
+		assertTrue(e.getMessage().startsWith("Failed to remove old public_key."));
+		assertSame(oldKey, wallet.getKey());
+
+		// added key is removed as synchronous update
+		assertEquals(Arrays.asList(
+				"addAssociatedAddress:"+newKey.getAddress(),
+				"addPublicKey:"+newKey.getAddress(),
+				"removePublicKey:"+oldKey.getAddress(),
+				"removePublicKey:"+newKey.getAddress(),
+				"removeAssociatedAddress:"+newKey.getAddress()
+		), delegator.getRequests());
+	}
+
+	@Test
+	public void testUpdateKeyRollbackOfLastStep() throws Exception {
+		delegator.failTransaction("removeAssociatedAddress:"+oldKey.getAddress());
+
+		failureOf(wallet.updateKeyOfDidAsync(delegator, newKey, null));
+		assertSame(oldKey, wallet.getKey());
+		assertEquals(Arrays.asList(
+				"addAssociatedAddress:"+newKey.getAddress(),
+				"addPublicKey:"+newKey.getAddress(),
+				"removePublicKey:"+oldKey.getAddress(),
+				"removeAssociatedAddress:"+oldKey.getAddress(),
+				"addPublicKey:"+oldKey.getAddress(),
+				"removePublicKey:"+newKey.getAddress(),
+				"removeAssociatedAddress:"+newKey.getAddress()
+		), delegator.getRequests());
+	}
+
+	@Test
+	public void testUpdateKeyNetworkError() throws Exception {
+		delegator.failRequest("removePublicKey:"+oldKey.getAddress());
+
+		// transaction may not be sent or mined later. not compensated
+		failureOf(wallet.updateKeyOfDidAsync(delegator, newKey, null));
+		assertSame(oldKey, wallet.getKey());
+		assertEquals(Arrays.asList(
+				"addAssociatedAddress:"+newKey.getAddress(),
+				"addPublicKey:"+newKey.getAddress(),
+				"removePublicKey:"+oldKey.getAddress()
+		), delegator.getRequests());
+	}
+
+	@Test
+	public void testDeleteDid() throws Exception {
+		delegator.failTransaction("removeAssociatedAddress:"+oldKey.getAddress());
+
+		Throwable e = failureOf(wallet.deleteDidAsync(delegator, null));
+		assertTrue(e.getMessage().startsWith("Failed to delete associated_key for delete did."));
+		assertEquals(Arrays.asList(
+				"removePublicKey:"+oldKey.getAddress(),
+				"removeAssociatedAddress:"+oldKey.getAddress()
+		), delegator.getRequests());
+	}
+}
@@ -0,0 +1,172 @@
+package com.metadium.did;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.web3j.protocol.Web3j;
+
+import com.metadium.did.crypto.MetadiumKeyImpl;
+import com.metadium.did.protocol.MetaDelegator;
+import com.metadium.did.protocol.StubWeb3jService;
+import com.metadium.did.protocol.TransactionReceiptPoller;
+
+/**
+ * Delegator recording delegated requests instead of sending them.<br/>
+ * Each request returns new tx hash of which receipt is replied by stubbed node.
+ */
+public class StubMetaDelegator extends MetaDelegator {
+	private final List<String> requests = new ArrayList<>();
+
+	/** status of receipt by tx hash */
+	private final Map<String, String> statusOfTx = new ConcurrentHashMap<>();
+
+	/** requests of which transaction fails */
+	private final Set<String> failingRequests = ConcurrentHashMap.newKeySet();
+
+	/** requests failing before transaction is sent */
+	private final Set<String> brokenRequests = ConcurrentHashMap.newKeySet();
+
+	private final AtomicInteger txCount = new AtomicInteger();
+
+	/** time when transaction is sent by tx hash */
+	private final Map<String, Long> sentTimeOfTx = new ConcurrentHashMap<>();
+
+	/** receipt is replied after this time since transaction is sent. milliseconds */
+	private volatile long miningTime;
+
+	/** number of transactions of which receipt is not replied yet */
+	private final AtomicInteger pendingTxCount = new AtomicInteger();
+
+	private final AtomicInteger maxPendingTxCount = new AtomicInteger();
+
+	private final TransactionReceiptPoller receiptPoller;
+
+	public StubMetaDelegator() {
+		super("http://localhost", "http://localhost", "did:meta:testnet");
+		StubWeb3jService service = new StubWeb3jService().on("eth_getTransactionReceipt", params -> {
+			String hash = params.get(0).asText();
+			Long sentTime = sentTimeOfTx.get(hash);
+			if (sentTime == null || System.currentTimeMillis() - sentTime < miningTime) {
+				return null;
+			}
+			if (sentTimeOfTx.remove(hash) != null) {
+				pendingTxCount.decrementAndGet();
+			}
+			String status = statusOfTx.get(hash);
+			Map<String, String> receipt = new HashMap<>();
+			receipt.put("transactionHash", hash);
+			receipt.put("blockNumber", "0x10");
+			receipt.put("status", status);
+			return receipt;
+		});
+		receiptPoller = new TransactionReceiptPoller(Web3j.build(service));
+		receiptPoller.setPollInterval(10);
+		receiptPoller.setBlockDriven(false);
+	}
+
+	/**
+	 * Mined transaction of request fails
+	 * @param request request name and address of key. ex) removePublicKey:0x...
+	 */
+	public void failTransaction(String request) {
+		failingRequests.add(request);
+	}
+
+	/**
+	 * Request fails with IOException before transaction is sent
+	 * @param request request name and address of key
+	 */
+	public void failRequest(String request) {
+		brokenRequests.add(request);
+	}
+
+	public void setMiningTime(long miningTime) {
+		this.miningTime = miningTime;
+	}
+
+	/**
+	 * @return maximum number of transactions waiting receipt at once
+	 */
+	public int getMaxPendingTxCount() {
+		return maxPendingTxCount.get();
+	}
+
+	/**
+	 * @return requests in order. request name and address of key
+	 */
+	public synchronized List<String> getRequests() {
+		return new ArrayList<>(requests);
+	}
+
+	@Override
+	public TransactionReceiptPoller getReceiptPoller() {
+		return receiptPoller;
+	}
+
+	@Override
+	public void close() {
+		receiptPoller.close();
+	}
+
+	private String request(String name, MetadiumKeyImpl key) throws IOException {
+		String request = name+":"+key.getAddress();
+		synchronized (this) {
+			requests.add(request);
+		}
+		if (brokenRequests.contains(request)) {
+			throw new IOException("delegator is not available");
+		}
+		String txHash = String.format("0x%064x", txCount.incrementAndGet());
+		statusOfTx.put(txHash, failingRequests.contains(request) ? "0x0" : "0x1");
+		sentTimeOfTx.put(txHash, System.currentTimeMillis());
+		maxPendingTxCount.accumulateAndGet(pendingTxCount.incrementAndGet(), Math::max);
+		return txHash;
+	}
+
+	@Override
+	public String createIdentityDelegated(MetadiumKeyImpl key) throws IOException {
+		return request("createIdentity", key);
+	}
+
+	@Override
+	public String addPublicKeyDelegated(MetadiumKeyImpl key, BigInteger publicKey) throws IOException {
+		return request("addPublicKey", key);
+	}
+
+	@Override
+	public String removePublicKeyDelegated(MetadiumKeyImpl key) throws IOException {
+		return request("removePublicKey", key);
+	}
+
+	@Override
+	public String addAssociatedAddressDelegated(MetadiumKeyImpl key, MetadiumKeyImpl addKey) throws IOException {
+		return request("addAssociatedAddress", addKey);
+	}
+
+	@Override
+	public String removeAssociatedAddressDelegated(MetadiumKeyImpl key) throws IOException {
+		return request("removeAssociatedAddress", key);
+	}
+
+	@Override
+	public String addKeyDelegated(MetadiumKeyImpl key, String serviceId, String serviceKeyAddress) throws IOException {
+		return request("addKey", key);
+	}
+
+	@Override
+	public String removeKeyDelegated(MetadiumKeyImpl key, String serviceId, String serviceKeyAddress) throws IOException {
+		return request("removeKey", key);
+	}
+
+	@Override
+	public String removeKeysDelegated(MetadiumKeyImpl key) throws IOException {
+		return request("removeKeys", key);
+	}
+}
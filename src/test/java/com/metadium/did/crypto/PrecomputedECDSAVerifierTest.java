@@ -0,0 +1,78 @@
+package com.metadium.did.crypto;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.text.ParseException;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.bc.BouncyCastleProviderSingleton;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+public class PrecomputedECDSAVerifierTest {
+	@Test
+	public void testVerify() throws InvalidAlgorithmParameterException, JOSEException, ParseException {
+		KeyPair keyPair = ECKeyUtils.generateSecp256k1KeyPair();
+		KeyPair otherKeyPair = ECKeyUtils.generateSecp256k1KeyPair();
+
+		ECDSASigner signer = new ECDSASigner((ECPrivateKey)keyPair.getPrivate());
+		signer.getJCAContext().setProvider(BouncyCastleProviderSingleton.getInstance());
+		ECDSAVerifier jcaVerifier = new ECDSAVerifier((ECPublicKey)keyPair.getPublic());
+		jcaVerifier.getJCAContext().setProvider(BouncyCastleProviderSingleton.getInstance());
+		PrecomputedECDSAVerifier verifier = new PrecomputedECDSAVerifier((ECPublicKey)keyPair.getPublic());
+		PrecomputedECDSAVerifier otherVerifier = new PrecomputedECDSAVerifier((ECPublicKey)otherKeyPair.getPublic());
+
+		for (int i = 0; i < 20; i++) {
+			SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.ES256K), new JWTClaimsSet.Builder().subject("subject"+i).build());
+			jwt.sign(signer);
+			SignedJWT parsed = SignedJWT.parse(jwt.serialize());
+
+			// same result with JCA verifier
+			assertTrue(parsed.verify(jcaVerifier));
+			assertTrue(parsed.verify(verifier));
+			assertFalse(parsed.verify(otherVerifier));
+
+			// tampered payload
+			String[] parts = jwt.serialize().split("\\.");
+			SignedJWT tampered = SignedJWT.parse(parts[0]+"."+Base64URL.encode(new JWTClaimsSet.Builder().subject("other").build().toString())+"."+parts[2]);
+			assertFalse(tampered.verify(verifier));
+		}
+	}
+
+	@Test
+	public void testCriticalHeader() throws InvalidAlgorithmParameterException, JOSEException, ParseException {
+		KeyPair keyPair = ECKeyUtils.generateSecp256k1KeyPair();
+		ECDSASigner signer = new ECDSASigner((ECPrivateKey)keyPair.getPrivate());
+		signer.getJCAContext().setProvider(BouncyCastleProviderSingleton.getInstance());
+
+		JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.ES256K)
+				.criticalParams(Collections.singleton("unknown"))
+				.customParam("unknown", "value")
+				.build();
+		SignedJWT jwt = new SignedJWT(header, new JWTClaimsSet.Builder().subject("subject").build());
+		jwt.sign(signer);
+		SignedJWT parsed = SignedJWT.parse(jwt.serialize());
+
+		// unknown critical parameter is rejected as JCA verifier
+		ECDSAVerifier jcaVerifier = new ECDSAVerifier((ECPublicKey)keyPair.getPublic());
+		jcaVerifier.getJCAContext().setProvider(BouncyCastleProviderSingleton.getInstance());
+		assertFalse(parsed.verify(jcaVerifier));
+		assertFalse(parsed.verify(new PrecomputedECDSAVerifier((ECPublicKey)keyPair.getPublic())));
+
+		// deferred to caller
+		assertTrue(parsed.verify(new PrecomputedECDSAVerifier((ECPublicKey)keyPair.getPublic(), Collections.singleton("unknown"))));
+	}
+}
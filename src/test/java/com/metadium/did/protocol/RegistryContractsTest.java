@@ -0,0 +1,62 @@
+package com.metadium.did.protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.web3j.abi.TypeEncoder;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.protocol.Web3j;
+
+import com.metadium.did.contract.IdentityRegistry;
+import com.metadium.did.exception.DidException;
+import com.metadium.did.protocol.data.RegistryAddress;
+
+public class RegistryContractsTest {
+	private static final String ADDRESS = "0x3b5d6e0f6c2b0a8d1e4a39a7ab5b4b3d0e2a4f51";
+
+	@Test
+	public void testIdentityRegistry() throws Exception {
+		RegistryAddress registryAddress = RegistryAddress.DEFAULT_TESTNET_REGISTRY_ADDRESS;
+		AtomicInteger callCount = new AtomicInteger();
+		StubWeb3jService service = new StubWeb3jService().on("eth_call", params -> {
+			// call to registry contract
+			assertEquals(registryAddress.identityRegistry, params.get(0).get("to").asText());
+			callCount.incrementAndGet();
+			return "0x"+TypeEncoder.encode(new Uint256(0x112b));
+		});
+		RegistryContracts contracts = new RegistryContracts(Web3j.build(service), registryAddress);
+
+		// wrapper is shared
+		IdentityRegistry identityRegistry = contracts.getIdentityRegistry();
+		assertSame(identityRegistry, contracts.getIdentityRegistry());
+		assertSame(registryAddress, contracts.getRegistryAddress());
+		assertEquals(registryAddress.identityRegistry, identityRegistry.getContractAddress());
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(BigInteger.valueOf(0x112b), identityRegistry.getEIN(ADDRESS).send());
+		}
+		assertEquals(3, callCount.get());
+	}
+
+	@Test
+	public void testContractsOfDelegator() throws DidException {
+		AtomicInteger addressCount = new AtomicInteger();
+		MetaDelegator metaDelegator = new MetaDelegator("http://localhost", "http://localhost", "did:meta:testnet") {
+			@Override
+			public RegistryAddress getAllServiceAddress() {
+				addressCount.incrementAndGet();
+				return RegistryAddress.DEFAULT_TESTNET_REGISTRY_ADDRESS;
+			}
+		};
+
+		// created once on first use
+		RegistryContracts contracts = metaDelegator.getContracts();
+		assertSame(contracts, metaDelegator.getContracts());
+		assertEquals(1, addressCount.get());
+		assertEquals(RegistryAddress.DEFAULT_TESTNET_REGISTRY_ADDRESS.identityRegistry, contracts.getIdentityRegistry().getContractAddress());
+	}
+}
@@ -0,0 +1,154 @@
+package com.metadium.did.protocol;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.web3j.protocol.Service;
+import org.web3j.protocol.core.Response;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Web3j service replying JSON-RPC requests with handlers of test instead of node
+ */
+public class StubWeb3jService extends Service {
+	/**
+	 * Reply of one JSON-RPC method
+	 */
+	public interface Handler {
+		/**
+		 * @param params params of request
+		 * @return result. {@link Response.Error} is replied as error
+		 * @throws IOException network error of request
+		 */
+		Object handle(JsonNode params) throws IOException;
+	}
+
+	/**
+	 * How batch request is replied
+	 */
+	public enum BatchReply {
+		/** array of responses */
+		SUPPORTED,
+		/** one error object instead of array */
+		ERROR_OBJECT,
+		/** array of one error of batch itself */
+		ERROR_ARRAY
+	}
+
+	private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+
+	private final AtomicInteger batchCount = new AtomicInteger();
+
+	private final AtomicInteger singleCount = new AtomicInteger();
+
+	private volatile BatchReply batchReply = BatchReply.SUPPORTED;
+
+	/** number of next requests failed with IOException */
+	private final AtomicInteger ioErrors = new AtomicInteger();
+
+	public StubWeb3jService() {
+		super(false);
+	}
+
+	public StubWeb3jService on(String method, Handler handler) {
+		handlers.put(method, handler);
+		return this;
+	}
+
+	public void setBatchReply(BatchReply batchReply) {
+		this.batchReply = batchReply;
+	}
+
+	/**
+	 * Fail next requests with IOException
+	 * @param count number of requests
+	 */
+	public void failNext(int count) {
+		ioErrors.set(count);
+	}
+
+	/**
+	 * @return number of batch requests sent
+	 */
+	public int getBatchCount() {
+		return batchCount.get();
+	}
+
+	/**
+	 * @return number of not batched requests sent
+	 */
+	public int getSingleCount() {
+		return singleCount.get();
+	}
+
+	@Override
+	protected InputStream performIO(String payload) throws IOException {
+		JsonNode request = objectMapper.readTree(payload);
+		if (request.isArray()) {
+			batchCount.incrementAndGet();
+		}
+		else {
+			singleCount.incrementAndGet();
+		}
+		if (ioErrors.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+			throw new IOException("connection refused");
+		}
+
+		JsonNode reply;
+		if (!request.isArray()) {
+			reply = reply(request);
+		}
+		else if (batchReply == BatchReply.ERROR_OBJECT) {
+			reply = error(null, -32600, "batch is not supported");
+		}
+		else if (batchReply == BatchReply.ERROR_ARRAY) {
+			reply = objectMapper.createArrayNode().add(error(null, -32600, "batch is not supported"));
+		}
+		else {
+			ArrayNode replies = objectMapper.createArrayNode();
+			for (JsonNode each : request) {
+				replies.add(reply(each));
+			}
+			reply = replies;
+		}
+		return new ByteArrayInputStream(objectMapper.writeValueAsBytes(reply));
+	}
+
+	private JsonNode reply(JsonNode request) throws IOException {
+		JsonNode id = request.get("id");
+		String method = request.get("method").asText();
+		Handler handler = handlers.get(method);
+		if (handler == null) {
+			return error(id, -32601, "method not found. "+method);
+		}
+		Object result = handler.handle(request.get("params"));
+		if (result instanceof Response.Error) {
+			Response.Error error = (Response.Error)result;
+			return error(id, error.getCode(), error.getMessage());
+		}
+		ObjectNode reply = objectMapper.createObjectNode();
+		reply.put("jsonrpc", "2.0");
+		reply.set("id", id);
+		reply.set("result", objectMapper.valueToTree(result));
+		return reply;
+	}
+
+	private ObjectNode error(JsonNode id, int code, String message) {
+		ObjectNode reply = objectMapper.createObjectNode();
+		reply.put("jsonrpc", "2.0");
+		reply.set("id", id);
+		reply.putObject("error").put("code", code).put("message", message);
+		return reply;
+	}
+
+	@Override
+	public void close() {
+	}
+}
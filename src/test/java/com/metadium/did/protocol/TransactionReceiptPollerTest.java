@@ -0,0 +1,223 @@
+package com.metadium.did.protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+
+public class TransactionReceiptPollerTest {
+	private StubWeb3jService service;
+
+	/** hashes of which receipt is replied */
+	private Set<String> mined;
+
+	/** block number of node */
+	private AtomicLong head;
+
+	private TransactionReceiptPoller poller;
+
+	@Before
+	public void setUp() {
+		mined = ConcurrentHashMap.newKeySet();
+		head = new AtomicLong(0x10);
+		service = new StubWeb3jService().on("eth_getTransactionReceipt", params -> {
+			String hash = params.get(0).asText();
+			return mined.contains(hash) ? receipt(hash) : null;
+		}).on("eth_blockNumber", params -> "0x"+Long.toHexString(head.get()));
+		poller = new TransactionReceiptPoller(Web3j.build(service));
+		poller.setPollInterval(20);
+		// receipts are requested every poll. block driven mode is tested in testBlockDriven
+		poller.setBlockDriven(false);
+	}
+
+	@After
+	public void tearDown() {
+		poller.close();
+	}
+
+	private static Map<String, String> receipt(String hash) {
+		Map<String, String> receipt = new HashMap<>();
+		receipt.put("transactionHash", hash);
+		receipt.put("blockNumber", "0x10");
+		receipt.put("status", "0x1");
+		return receipt;
+	}
+
+	private static String hash(int i) {
+		return String.format("0x%064x", i);
+	}
+
+	private List<CompletableFuture<TransactionReceipt>> waitReceipts(int count) {
+		List<CompletableFuture<TransactionReceipt>> futures = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			futures.add(poller.getTransactionReceipt(hash(i)));
+		}
+		return futures;
+	}
+
+	private void assertReceipts(List<CompletableFuture<TransactionReceipt>> futures) throws Exception {
+		for (int i = 0; i < futures.size(); i++) {
+			assertEquals(hash(i), futures.get(i).get(5, TimeUnit.SECONDS).getTransactionHash());
+		}
+		assertEquals(0, poller.getPendingCount());
+	}
+
+	@Test
+	public void testBatch() throws Exception {
+		List<CompletableFuture<TransactionReceipt>> futures = waitReceipts(5);
+		assertEquals(5, poller.getPendingCount());
+
+		// same hash shares future
+		assertSame(futures.get(0), poller.getTransactionReceipt(hash(0)));
+
+		Thread.sleep(100);
+		for (int i = 0; i < 5; i++) {
+			mined.add(hash(i));
+		}
+		assertReceipts(futures);
+
+		// one batch per poll
+		assertTrue(service.getBatchCount() >= 1);
+		assertEquals(0, service.getSingleCount());
+	}
+
+	@Test
+	public void testMaxBatchSize() throws Exception {
+		poller.setMaxBatchSize(2);
+		for (int i = 0; i < 5; i++) {
+			mined.add(hash(i));
+		}
+		List<CompletableFuture<TransactionReceipt>> futures = waitReceipts(5);
+		assertReceipts(futures);
+		assertEquals(3, service.getBatchCount());
+		assertEquals(0, service.getSingleCount());
+	}
+
+	@Test
+	public void testBatchNotSupported() throws Exception {
+		for (StubWeb3jService.BatchReply reply : new StubWeb3jService.BatchReply[] { StubWeb3jService.BatchReply.ERROR_OBJECT, StubWeb3jService.BatchReply.ERROR_ARRAY }) {
+			setUp();
+			service.setBatchReply(reply);
+			for (int i = 0; i < 3; i++) {
+				mined.add(hash(i));
+			}
+
+			// requested one by one in same poll
+			List<CompletableFuture<TransactionReceipt>> futures = waitReceipts(3);
+			assertReceipts(futures);
+			assertEquals(1, service.getBatchCount());
+			assertEquals(3, service.getSingleCount());
+
+			// batch is not tried again
+			assertReceipts(waitReceipts(3));
+			assertEquals(1, service.getBatchCount());
+			poller.close();
+		}
+	}
+
+	@Test
+	public void testNetworkError() throws Exception {
+		service.failNext(2);
+		List<CompletableFuture<TransactionReceipt>> futures = waitReceipts(3);
+		for (int i = 0; i < 3; i++) {
+			mined.add(hash(i));
+		}
+
+		// retried with batch in next poll
+		assertReceipts(futures);
+		assertEquals(3, service.getBatchCount());
+		assertEquals(0, service.getSingleCount());
+	}
+
+	@Test
+	public void testBlockDriven() throws Exception {
+		poller.setBlockDriven(true);
+		List<CompletableFuture<TransactionReceipt>> futures = waitReceipts(3);
+
+		// new hashes are requested once without waiting block
+		Thread.sleep(200);
+		assertEquals(1, service.getBatchCount());
+
+		// requested again on new block
+		for (int i = 0; i < 3; i++) {
+			mined.add(hash(i));
+		}
+		Thread.sleep(100);
+		assertFalse(futures.get(0).isDone());
+		head.incrementAndGet();
+		assertReceipts(futures);
+		assertEquals(2, service.getBatchCount());
+	}
+
+	@Test
+	public void testConfirmations() throws Exception {
+		poller.setConfirmations(3);
+		mined.add(hash(0));
+		CompletableFuture<TransactionReceipt> future = poller.getTransactionReceipt(hash(0));
+
+		// receipt at block 0x10. not confirmed until head is 0x13
+		head.set(0x12);
+		Thread.sleep(200);
+		assertFalse(future.isDone());
+
+		head.set(0x13);
+		assertEquals(0x10, future.get(5, TimeUnit.SECONDS).getBlockNumber().longValue());
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		poller.setTimeout(200);
+		CompletableFuture<TransactionReceipt> future = poller.getTransactionReceipt(hash(0));
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail();
+		}
+		catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		}
+		assertEquals(0, poller.getPendingCount());
+
+		// blocking wait
+		long start = System.currentTimeMillis();
+		try {
+			poller.waitTransactionReceipt(hash(1));
+			fail();
+		}
+		catch (IOException e) {
+			// timeout
+		}
+		assertTrue(System.currentTimeMillis() - start < 5000);
+	}
+
+	@Test
+	public void testClose() throws Exception {
+		CompletableFuture<TransactionReceipt> future = poller.getTransactionReceipt(hash(0));
+		poller.close();
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail();
+		}
+		catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof IOException);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.metadium.did.util.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LruCacheTest {
+
+	@Test
+	public void testEvictLeastRecentlyUsed() {
+		// single segment for deterministic order
+		LruCache<String, Integer> cache = new LruCache<>(2, 0, 0, 1);
+		cache.put("a", 1);
+		cache.put("b", 2);
+		
+		// touch a. b is eldest
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+		cache.put("c", 3);
+		
+		assertNull(cache.get("b"));
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+		assertEquals(Integer.valueOf(3), cache.get("c"));
+		assertEquals(1, cache.getEvictionCount());
+	}
+	
+	@Test
+	public void testExpireAfterWrite() throws InterruptedException {
+		LruCache<String, Integer> cache = new LruCache<>(10, 50, 0);
+		cache.put("a", 1);
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+		
+		Thread.sleep(100);
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.size());
+	}
+	
+	@Test
+	public void testBounded() {
+		LruCache<Integer, Integer> cache = new LruCache<>(100, 0, 0);
+		for (int i = 0; i < 10000; i++) {
+			cache.put(i, i);
+		}
+		assertTrue(cache.size() <= 100 + LruCache.DEFAULT_CONCURRENCY_LEVEL);
+	}
+}
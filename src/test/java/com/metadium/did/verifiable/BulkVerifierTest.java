@@ -0,0 +1,149 @@
+package com.metadium.did.verifiable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Test;
+
+import com.metadium.did.crypto.ECKeyUtils;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.bc.BouncyCastleProviderSingleton;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+public class BulkVerifierTest {
+	private static final String DID = "did:meta:testnet:000000000000000000000000000000000000000000000000000000000000112b";
+	private static final String KID = DID+"#MetaManagementKey#3b5d6e0f6c2b0a8d1e4a39a7ab5b4b3d0e2a4f51";
+
+	private static String sign(KeyPair keyPair, String kid, String subject) throws JOSEException {
+		ECDSASigner signer = new ECDSASigner((ECPrivateKey)keyPair.getPrivate());
+		signer.getJCAContext().setProvider(BouncyCastleProviderSingleton.getInstance());
+		SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256K).keyID(kid).build(), new JWTClaimsSet.Builder().subject(subject).build());
+		jwt.sign(signer);
+		return jwt.serialize();
+	}
+
+	private static ByteArrayInputStream lines(String... lines) {
+		return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testVerifyInOrder() throws InvalidAlgorithmParameterException, JOSEException, IOException {
+		KeyPair keyPair = ECKeyUtils.generateSecp256k1KeyPair();
+		KeyPair otherKeyPair = ECKeyUtils.generateSecp256k1KeyPair();
+		Verifier verifier = new Verifier((did, kid) -> (ECPublicKey)keyPair.getPublic());
+
+		List<String> input = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			input.add(sign(i % 2 == 0 ? keyPair : otherKeyPair, KID, "subject"+i));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Long> lineNumbers = new ArrayList<>();
+			List<VerifyResult> results = new ArrayList<>();
+			BulkVerifier.Summary summary = new BulkVerifier(verifier, 3, executor).verify(lines(input.toArray(new String[0])), (lineNumber, result) -> {
+				lineNumbers.add(lineNumber);
+				results.add(result);
+			});
+
+			assertEquals(20, lineNumbers.size());
+			for (int i = 0; i < 20; i++) {
+				assertEquals(i + 1, lineNumbers.get(i).longValue());
+				assertEquals(i % 2 == 0, results.get(i).isVerified());
+				assertEquals("subject"+i, results.get(i).getSignedJWT().getPayload().toJSONObject().get("sub"));
+			}
+			assertEquals(10, summary.getVerifiedCount());
+			assertEquals(10, summary.getNotVerifiedCount());
+			assertEquals(0, summary.getErrorCount());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testSkipAndInvalidLines() throws InvalidAlgorithmParameterException, JOSEException, IOException {
+		KeyPair keyPair = ECKeyUtils.generateSecp256k1KeyPair();
+		Verifier verifier = new Verifier((did, kid) -> (ECPublicKey)keyPair.getPublic());
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<Long> lineNumbers = new ArrayList<>();
+			List<VerifyResult> results = new ArrayList<>();
+			BulkVerifier.Summary summary = new BulkVerifier(verifier, 2, executor).verify(lines(
+					"",
+					"\""+sign(keyPair, KID, "quoted")+"\"",
+					"   ",
+					"not a jwt",
+					sign(keyPair, "invalid-kid", "no did"),
+					"  "+sign(keyPair, KID, "trimmed")+"  "
+			), (lineNumber, result) -> {
+				lineNumbers.add(lineNumber);
+				results.add(result);
+			});
+
+			// blank lines are skipped, but counted in line number
+			assertEquals(4, lineNumbers.size());
+			assertEquals(2, lineNumbers.get(0).longValue());
+			assertEquals(4, lineNumbers.get(1).longValue());
+			assertEquals(5, lineNumbers.get(2).longValue());
+			assertEquals(6, lineNumbers.get(3).longValue());
+
+			assertTrue(results.get(0).isVerified());
+
+			// not parsed
+			assertFalse(results.get(1).isVerified());
+			assertNull(results.get(1).getSignedJWT());
+			assertNotNull(results.get(1).getError());
+
+			// parsed, but kid has no did
+			assertFalse(results.get(2).isVerified());
+			assertNotNull(results.get(2).getSignedJWT());
+			assertNotNull(results.get(2).getError());
+
+			assertTrue(results.get(3).isVerified());
+
+			assertEquals(2, summary.getVerifiedCount());
+			assertEquals(2, summary.getErrorCount());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testRejectedExecutor() throws InvalidAlgorithmParameterException, JOSEException, IOException {
+		KeyPair keyPair = ECKeyUtils.generateSecp256k1KeyPair();
+		Verifier verifier = new Verifier((did, kid) -> (ECPublicKey)keyPair.getPublic());
+
+		List<VerifyResult> results = new ArrayList<>();
+		BulkVerifier.Summary summary = new BulkVerifier(verifier, 2, command -> {
+			throw new RejectedExecutionException();
+		}).verify(lines(sign(keyPair, KID, "a"), sign(keyPair, KID, "b")), (lineNumber, result) -> results.add(result));
+
+		// reported as error of line, not thrown
+		assertEquals(2, results.size());
+		assertTrue(results.get(0).getError() instanceof RejectedExecutionException);
+		assertEquals(2, summary.getErrorCount());
+	}
+}
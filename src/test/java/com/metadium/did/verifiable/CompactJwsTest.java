@@ -0,0 +1,98 @@
+package com.metadium.did.verifiable;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.text.ParseException;
+
+import org.junit.Test;
+
+import com.metadium.did.crypto.ECKeyUtils;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.bc.BouncyCastleProviderSingleton;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+public class CompactJwsTest {
+	private static final String DID = "did:meta:testnet:000000000000000000000000000000000000000000000000000000000000112b";
+	private static final String KID = DID+"#MetaManagementKey#3b5d6e0f6c2b0a8d1e4a39a7ab5b4b3d0e2a4f51";
+
+	private static SignedJWT sign(KeyPair keyPair, String kid) throws JOSEException {
+		ECDSASigner signer = new ECDSASigner((ECPrivateKey)keyPair.getPrivate());
+		signer.getJCAContext().setProvider(BouncyCastleProviderSingleton.getInstance());
+		SignedJWT jwt = new SignedJWT(
+				new JWSHeader.Builder(JWSAlgorithm.ES256K).keyID(kid).build(),
+				new JWTClaimsSet.Builder().subject("subject").build()
+		);
+		jwt.sign(signer);
+		return jwt;
+	}
+
+	@Test
+	public void testParse() throws InvalidAlgorithmParameterException, JOSEException, ParseException {
+		KeyPair keyPair = ECKeyUtils.generateSecp256k1KeyPair();
+		SignedJWT jwt = sign(keyPair, KID);
+		SignedJWT parsed = SignedJWT.parse(jwt.serialize());
+
+		CompactJws jws = CompactJws.parse(jwt.serialize());
+		assertEquals(jwt.serialize(), jws.serialize());
+		assertEquals(KID, jws.getKeyID());
+		assertEquals(DID, jws.getDid());
+		assertEquals(JWSAlgorithm.ES256K, jws.getHeader().getAlgorithm());
+		assertArrayEquals(parsed.getSigningInput(), jws.getSigningInput());
+		assertEquals(parsed.getSignature(), jws.getSignature());
+		assertEquals("subject", jws.getJWTClaimsSet().getSubject());
+
+		// signature
+		ECDSAVerifier verifier = new ECDSAVerifier((ECPublicKey)keyPair.getPublic());
+		verifier.getJCAContext().setProvider(BouncyCastleProviderSingleton.getInstance());
+		assertTrue(jws.verify(verifier));
+		ECDSAVerifier otherVerifier = new ECDSAVerifier((ECPublicKey)ECKeyUtils.generateSecp256k1KeyPair().getPublic());
+		otherVerifier.getJCAContext().setProvider(BouncyCastleProviderSingleton.getInstance());
+		assertFalse(jws.verify(otherVerifier));
+
+		// not did key id
+		jws = CompactJws.parse(sign(keyPair, "key1").serialize());
+		assertEquals("key1", jws.getKeyID());
+		assertNull(jws.getDid());
+	}
+
+	private static void assertParseFails(String serialized) {
+		try {
+			CompactJws.parse(serialized);
+			fail();
+		}
+		catch (ParseException e) {
+			// malformed
+		}
+	}
+
+	@Test
+	public void testMalformed() throws InvalidAlgorithmParameterException, JOSEException {
+		String[] parts = sign(ECKeyUtils.generateSecp256k1KeyPair(), KID).serialize().split("\\.");
+
+		// missing segment
+		assertParseFails(parts[0]);
+		assertParseFails(parts[0]+"."+parts[1]);
+		assertParseFails("");
+
+		// extra dots
+		assertParseFails(parts[0]+"."+parts[1]+"."+parts[2]+".");
+		assertParseFails(parts[0]+"."+parts[1]+"."+parts[2]+"."+parts[2]);
+
+		// header is not JSON
+		assertParseFails("bm90IGpzb24."+parts[1]+"."+parts[2]);
+	}
+}
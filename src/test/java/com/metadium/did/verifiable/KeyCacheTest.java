@@ -0,0 +1,36 @@
+package com.metadium.did.verifiable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.interfaces.ECPublicKey;
+
+import org.junit.Test;
+
+import com.metadium.did.crypto.ECKeyUtils;
+
+public class KeyCacheTest {
+	private static final String DID = "did:meta:testnet:000000000000000000000000000000000000000000000000000000000000112b";
+	private static final String KID = DID+"#MetaManagementKey#3b5d6e0f6c2b0a8d1e4a39a7ab5b4b3d0e2a4f51";
+
+	@Test
+	public void testPutGet() throws InvalidAlgorithmParameterException {
+		KeyCache cache = new KeyCache();
+		ECPublicKey publicKey = (ECPublicKey)ECKeyUtils.generateSecp256k1KeyPair().getPublic();
+		
+		assertNull(cache.get(KID));
+		cache.put(KID, publicKey);
+		assertEquals(publicKey.getW(), cache.get(KID).getW());
+		assertSame(cache.get(KID), cache.get(KID));
+		
+		// peek is not counted
+		long hitCount = cache.getHitCount();
+		assertSame(cache.get(KID), cache.peek(KID));
+		assertEquals(hitCount + 1, cache.getHitCount());
+		
+		cache.invalidate(DID);
+		assertNull(cache.get(KID));
+	}
+}
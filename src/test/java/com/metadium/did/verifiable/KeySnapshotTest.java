@@ -0,0 +1,119 @@
+package com.metadium.did.verifiable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.interfaces.ECPublicKey;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.metadium.did.crypto.ECKeyUtils;
+
+public class KeySnapshotTest {
+	private static final String DID = "did:meta:testnet:000000000000000000000000000000000000000000000000000000000000112b";
+	private static final String KID = DID+"#MetaManagementKey#3b5d6e0f6c2b0a8d1e4a39a7ab5b4b3d0e2a4f51";
+	private static final String OTHER_KID = DID+"#MetaManagementKey#5f2a4e0d3b4b5bab7a93a4e1d8a0b2c6f0e6d5b3";
+
+	/** magic, version, created time, count */
+	private static final int HEADER_LENGTH = 20;
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("keys", ".snapshot");
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	private static ECPublicKey newKey() throws InvalidAlgorithmParameterException {
+		return (ECPublicKey)ECKeyUtils.generateSecp256k1KeyPair().getPublic();
+	}
+
+	@Test
+	public void testSaveLoad() throws IOException, InvalidAlgorithmParameterException {
+		Map<String, ECPublicKey> keys = new LinkedHashMap<>();
+		keys.put(KID, newKey());
+		keys.put(OTHER_KID, newKey());
+		KeySnapshot.save(file, keys);
+
+		Map<String, ECPublicKey> loaded = KeySnapshot.load(file, 60000);
+		assertEquals(2, loaded.size());
+		for (Map.Entry<String, ECPublicKey> entry : keys.entrySet()) {
+			assertEquals(entry.getValue().getW(), loaded.get(entry.getKey()).getW());
+		}
+
+		// empty
+		KeySnapshot.save(file, new LinkedHashMap<>());
+		assertTrue(KeySnapshot.load(file, 0).isEmpty());
+	}
+
+	@Test
+	public void testMaxAge() throws IOException, InvalidAlgorithmParameterException, InterruptedException {
+		Map<String, ECPublicKey> keys = new LinkedHashMap<>();
+		keys.put(KID, newKey());
+		KeySnapshot.save(file, keys);
+
+		Thread.sleep(50);
+		assertTrue(KeySnapshot.load(file, 10).isEmpty());
+		assertEquals(1, KeySnapshot.load(file, 0).size());
+	}
+
+	@Test
+	public void testSkipInvalidPoint() throws IOException, InvalidAlgorithmParameterException {
+		Map<String, ECPublicKey> keys = new LinkedHashMap<>();
+		keys.put(KID, newKey());
+		keys.put(OTHER_KID, newKey());
+		KeySnapshot.save(file, keys);
+
+		// change y of first entry. point is not on curve
+		try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+			long offset = HEADER_LENGTH + 2 + KID.getBytes(StandardCharsets.UTF_8).length + 63;
+			out.seek(offset);
+			int last = out.read();
+			out.seek(offset);
+			out.write(last ^ 0x01);
+		}
+
+		Map<String, ECPublicKey> loaded = KeySnapshot.load(file, 0);
+		assertFalse(loaded.containsKey(KID));
+		assertEquals(keys.get(OTHER_KID).getW(), loaded.get(OTHER_KID).getW());
+	}
+
+	@Test
+	public void testInvalidFile() throws IOException {
+		Files.write(file.toPath(), "not a snapshot".getBytes(StandardCharsets.UTF_8));
+		try {
+			KeySnapshot.load(file, 0);
+			fail();
+		}
+		catch (IOException e) {
+			// invalid format
+		}
+
+		// truncated
+		Files.write(file.toPath(), new byte[] { 0x44, 0x49 });
+		try {
+			KeySnapshot.load(file, 0);
+			fail();
+		}
+		catch (IOException e) {
+			// invalid format
+		}
+	}
+}
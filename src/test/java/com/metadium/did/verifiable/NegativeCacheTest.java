@@ -0,0 +1,62 @@
+package com.metadium.did.verifiable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.metadium.did.exception.DidException;
+import com.metadium.did.exception.DidNotFoundException;
+import com.metadium.did.exception.PublicKeyNotFoundException;
+
+public class NegativeCacheTest {
+	private static final String DID = "did:meta:testnet:000000000000000000000000000000000000000000000000000000000000112b";
+	private static final String KID = DID+"#MetaManagementKey#3b5d6e0f6c2b0a8d1e4a39a7ab5b4b3d0e2a4f51";
+
+	@Test
+	public void testRejectNotFound() throws DidException {
+		NegativeCache cache = new NegativeCache();
+		
+		// not recorded
+		cache.check(DID, KID);
+		
+		cache.record(DID, KID, new PublicKeyNotFoundException("Not found public key. "+KID));
+		try {
+			cache.check(DID, KID);
+			fail();
+		}
+		catch (PublicKeyNotFoundException e) {
+			assertEquals(1, cache.getRejectedKidCount());
+		}
+		
+		cache.record(DID, KID, new DidNotFoundException("Not found did. "+DID));
+		try {
+			cache.check(DID, KID);
+			fail();
+		}
+		catch (DidNotFoundException e) {
+			assertEquals(1, cache.getRejectedDidCount());
+		}
+		
+		// did and kid of did are removed
+		cache.invalidate(DID);
+		cache.check(DID, KID);
+		assertEquals(0, cache.size());
+	}
+	
+	@Test
+	public void testIgnoreOtherError() throws DidException {
+		NegativeCache cache = new NegativeCache();
+		cache.record(DID, KID, new DidException("Did invalid"));
+		cache.check(DID, KID);
+		assertEquals(0, cache.size());
+	}
+	
+	@Test
+	public void testExpire() throws DidException, InterruptedException {
+		NegativeCache cache = new NegativeCache(10, 50);
+		cache.record(DID, KID, new DidNotFoundException("Not found did. "+DID));
+		Thread.sleep(100);
+		cache.check(DID, KID);
+	}
+}
@@ -0,0 +1,52 @@
+package com.metadium.did.verifiable;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ReplayGuardTest {
+	private static final String DID = "did:meta:testnet:000000000000000000000000000000000000000000000000000000000000112b";
+
+	@Test
+	public void testWindow() {
+		ReplayGuard guard = new ReplayGuard(10000, 10, 0);
+		long fingerprint = ReplayGuard.fingerprint(DID, "nonce");
+		long now = 1000000;
+		
+		assertTrue(guard.checkAndRecord(fingerprint, now));
+		assertFalse(guard.checkAndRecord(fingerprint, now));
+		assertTrue(guard.checkAndRecord(ReplayGuard.fingerprint(DID, "other"), now));
+		
+		// still in window
+		assertFalse(guard.checkAndRecord(fingerprint, now + 9999));
+		
+		// dropped after window
+		assertTrue(guard.checkAndRecord(fingerprint, now + 11000));
+		
+		// many nonces
+		for (int i = 0; i < 10000; i++) {
+			assertTrue(guard.checkAndRecord(ReplayGuard.fingerprint(DID, "nonce"+i), now + 12000));
+		}
+		for (int i = 0; i < 10000; i++) {
+			assertFalse(guard.checkAndRecord(ReplayGuard.fingerprint(DID, "nonce"+i), now + 12000));
+		}
+	}
+
+	@Test
+	public void testIssueTime() {
+		ReplayGuard guard = new ReplayGuard(10000, 10, 1000);
+		long now = 1000000;
+		
+		assertTrue(guard.isInWindow(now, now));
+		assertTrue(guard.isInWindow(now - 10000, now));
+		assertTrue(guard.isInWindow(now + 1000, now));
+		assertFalse(guard.isInWindow(now - 10001, now));
+		assertFalse(guard.isInWindow(now + 1001, now));
+		
+		// nonce of presentation issued in future by skew is kept until it is out of window
+		long fingerprint = ReplayGuard.fingerprint(DID, "nonce");
+		assertTrue(guard.checkAndRecord(fingerprint, now));
+		assertFalse(guard.checkAndRecord(fingerprint, now + 11000));
+	}
+}
@@ -0,0 +1,135 @@
+package com.metadium.did.verifiable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SingleFlightTest {
+	private static final String DID = "did:meta:testnet:000000000000000000000000000000000000000000000000000000000000112b";
+
+	private static final int CALLERS = 16;
+
+	/**
+	 * Loader counts loads and blocks until released, so all callers arrive while loading
+	 */
+	private static class BlockingLoader implements SingleFlight.Loader<String> {
+		final AtomicInteger loadCount = new AtomicInteger();
+		final CountDownLatch loading = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final IOException failure;
+
+		BlockingLoader(IOException failure) {
+			this.failure = failure;
+		}
+
+		@Override
+		public String load(String key) throws IOException {
+			loadCount.incrementAndGet();
+			loading.countDown();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			if (failure != null) {
+				throw failure;
+			}
+			return "document of "+key;
+		}
+	}
+
+	private static List<Future<String>> loadConcurrently(SingleFlight<String> singleFlight, BlockingLoader loader, ExecutorService executor) throws InterruptedException {
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(executor.submit(() -> singleFlight.load(DID, loader)));
+		}
+		assertTrue(loader.loading.await(5, TimeUnit.SECONDS));
+		// let other callers join the running load
+		Thread.sleep(200);
+		loader.release.countDown();
+		return results;
+	}
+
+	@Test
+	public void testConcurrentLoad() throws Exception {
+		SingleFlight<String> singleFlight = new SingleFlight<>();
+		BlockingLoader loader = new BlockingLoader(null);
+		ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+		try {
+			for (Future<String> result : loadConcurrently(singleFlight, loader, executor)) {
+				assertEquals("document of "+DID, result.get(5, TimeUnit.SECONDS));
+			}
+			assertEquals(1, loader.loadCount.get());
+
+			// finished load is not shared
+			BlockingLoader nextLoader = new BlockingLoader(null);
+			nextLoader.release.countDown();
+			assertEquals("document of "+DID, singleFlight.load(DID, nextLoader));
+			assertEquals(1, nextLoader.loadCount.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testConcurrentFailure() throws Exception {
+		SingleFlight<String> singleFlight = new SingleFlight<>();
+		IOException failure = new IOException("resolver down");
+		BlockingLoader loader = new BlockingLoader(failure);
+		ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+		try {
+			for (Future<String> result : loadConcurrently(singleFlight, loader, executor)) {
+				try {
+					result.get(5, TimeUnit.SECONDS);
+					fail();
+				}
+				catch (ExecutionException e) {
+					// every caller gets failure of the one load
+					assertEquals(failure, e.getCause());
+				}
+			}
+			assertEquals(1, loader.loadCount.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testConcurrentLoadAsync() throws Exception {
+		SingleFlight<String> singleFlight = new SingleFlight<>();
+		BlockingLoader loader = new BlockingLoader(null);
+		ExecutorService executor = Executors.newCachedThreadPool();
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < CALLERS; i++) {
+				results.add(singleFlight.loadAsync(DID, loader, executor));
+			}
+			assertTrue(loader.loading.await(5, TimeUnit.SECONDS));
+			loader.release.countDown();
+
+			for (Future<String> result : results) {
+				assertEquals("document of "+DID, result.get(5, TimeUnit.SECONDS));
+			}
+			assertEquals(1, loader.loadCount.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.metadium.did.verifiable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TrustRegistryTest {
+	private static String did(int i) {
+		return String.format("did:meta:testnet:%064x", i);
+	}
+
+	@Test
+	public void testLookup() {
+		List<String> dids = new ArrayList<>();
+		for (int i = 0; i < 100000; i++) {
+			dids.add(did(i));
+		}
+		TrustRegistry registry = new TrustRegistry(dids);
+		assertEquals(100000, registry.size());
+		for (String did : dids) {
+			assertTrue(registry.isTrusted(did));
+		}
+		for (int i = 100000; i < 200000; i++) {
+			assertFalse(registry.isTrusted(did(i)));
+		}
+		
+		// swap
+		registry.update(Collections.singleton(did(100000)));
+		assertTrue(registry.isTrusted(did(100000)));
+		assertFalse(registry.isTrusted(did(0)));
+		
+		// empty
+		registry.update(Collections.<String>emptyList());
+		assertFalse(registry.isTrusted(did(0)));
+	}
+
+	@Test
+	public void testLoad() throws Exception {
+		File file = File.createTempFile("trust", ".txt");
+		try {
+			Files.write(file.toPath(), Arrays.asList("# issuers", "", did(1), "  "+did(2)+"  "), StandardCharsets.UTF_8);
+			TrustRegistry registry = TrustRegistry.load(file);
+			assertEquals(2, registry.size());
+			assertTrue(registry.isTrusted(did(1)));
+			assertTrue(registry.isTrusted(did(2)));
+			assertFalse(registry.isTrusted("# issuers"));
+			
+			Files.write(file.toPath(), Arrays.asList(did(3)), StandardCharsets.UTF_8);
+			registry.reload(file);
+			assertEquals(1, registry.size());
+			assertTrue(registry.isTrusted(did(3)));
+			assertFalse(registry.isTrusted(did(1)));
+		}
+		finally {
+			file.delete();
+		}
+	}
+}
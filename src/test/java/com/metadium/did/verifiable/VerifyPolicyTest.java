@@ -0,0 +1,56 @@
+package com.metadium.did.verifiable;
+
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.metadium.did.exception.PolicyViolationException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+public class VerifyPolicyTest {
+	private static final String DID = "did:meta:testnet:000000000000000000000000000000000000000000000000000000000000112b";
+	private static final String KID = DID+"#MetaManagementKey#3b5d6e0f6c2b0a8d1e4a39a7ab5b4b3d0e2a4f51";
+
+	private static SignedJWT jwt(JWSAlgorithm algorithm, String kid, Date exp, Date nbf) {
+		return new SignedJWT(
+				new JWSHeader.Builder(algorithm).keyID(kid).build(),
+				new JWTClaimsSet.Builder().expirationTime(exp).notBeforeTime(nbf).build()
+		);
+	}
+
+	@Test
+	public void testCheck() throws PolicyViolationException {
+		long now = System.currentTimeMillis();
+		VerifyPolicy policy = new VerifyPolicy().setClockSkew(10000);
+
+		policy.check(jwt(JWSAlgorithm.ES256K, KID, new Date(now + 60000), null), KID);
+		// in clock skew
+		policy.check(jwt(JWSAlgorithm.ES256K, KID, new Date(now - 5000), new Date(now + 5000)), KID);
+
+		assertRejected(policy, jwt(JWSAlgorithm.ES256, KID, null, null), KID);
+		assertRejected(policy, jwt(JWSAlgorithm.ES256K, "did:meta:abc#key", null, null), "did:meta:abc#key");
+		assertRejected(policy, jwt(JWSAlgorithm.ES256K, KID, new Date(now - 20000), null), KID);
+		assertRejected(policy, jwt(JWSAlgorithm.ES256K, KID, null, new Date(now + 20000)), KID);
+
+		policy.setAllowedIssuers(Collections.singletonList("did:meta:testnet:0000000000000000000000000000000000000000000000000000000000000001"));
+		assertRejected(policy, jwt(JWSAlgorithm.ES256K, KID, null, null), KID);
+		policy.setAllowedIssuers(Collections.singletonList(DID));
+		policy.check(jwt(JWSAlgorithm.ES256K, KID, null, null), KID);
+	}
+
+	private static void assertRejected(VerifyPolicy policy, SignedJWT jwt, String kid) {
+		try {
+			policy.check(jwt, kid);
+			fail();
+		}
+		catch (PolicyViolationException e) {
+			// rejected
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.metadium.did.verifiable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+public class VerifyResultCacheTest {
+	private static final String DID = "did:meta:testnet:000000000000000000000000000000000000000000000000000000000000112b";
+	private static final String OTHER_DID = "did:meta:testnet:000000000000000000000000000000000000000000000000000000000000112c";
+
+	@Test
+	public void testPutGet() {
+		VerifyResultCache cache = new VerifyResultCache();
+		String key = cache.keyOf(DID, "header.payload.signature");
+
+		assertEquals(key, cache.keyOf(DID, "header.payload.signature"));
+		assertNotEquals(key, cache.keyOf(DID, "header.payload.other"));
+
+		assertNull(cache.get(key));
+		cache.put(key, true, null);
+		assertEquals(Boolean.TRUE, cache.get(key));
+		cache.put(key, false, null);
+		assertEquals(Boolean.FALSE, cache.get(key));
+	}
+
+	@Test
+	public void testExpireAtTtl() throws InterruptedException {
+		VerifyResultCache cache = new VerifyResultCache(10, 50);
+		String key = cache.keyOf(DID, "header.payload.signature");
+
+		// exp is later than TTL
+		cache.put(key, true, new Date(System.currentTimeMillis() + 60000));
+		assertEquals(Boolean.TRUE, cache.get(key));
+
+		Thread.sleep(100);
+		assertNull(cache.get(key));
+	}
+
+	@Test
+	public void testExpireAtExp() throws InterruptedException {
+		VerifyResultCache cache = new VerifyResultCache(10, 60000);
+		String key = cache.keyOf(DID, "header.payload.signature");
+
+		// exp is earlier than TTL
+		cache.put(key, true, new Date(System.currentTimeMillis() + 50));
+		assertEquals(Boolean.TRUE, cache.get(key));
+
+		Thread.sleep(100);
+		assertNull(cache.get(key));
+		assertEquals(0, cache.size());
+
+		// already expired
+		cache.put(key, true, new Date(System.currentTimeMillis() - 1000));
+		assertNull(cache.get(key));
+	}
+
+	@Test
+	public void testInvalidate() {
+		VerifyResultCache cache = new VerifyResultCache();
+		String key = cache.keyOf(DID, "header.payload.signature");
+		String otherKey = cache.keyOf(OTHER_DID, "header.payload.signature");
+		cache.put(key, true, null);
+		cache.put(otherKey, true, null);
+
+		// results of other did are kept
+		cache.invalidate(DID);
+		assertNull(cache.get(key));
+		assertEquals(Boolean.TRUE, cache.get(otherKey));
+
+		cache.invalidateAll();
+		assertNull(cache.get(otherKey));
+		assertEquals(0, cache.size());
+	}
+}